@@ -6,8 +6,11 @@ import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.nlu.backend.entity.Role;
 import org.nlu.backend.entity.User;
+import org.nlu.backend.repository.CourseEnrollmentRepository;
+import org.nlu.backend.repository.CourseRepository;
 import org.nlu.backend.repository.RoleRepository;
 import org.nlu.backend.repository.UserRepository;
+import org.nlu.backend.service.search.CourseSearchIndex;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -96,4 +99,29 @@ public class ApplicationInitConfig {
         };
     }
 
+    @Bean
+    ApplicationRunner courseColumnsBackfillRunner(CourseRepository courseRepository,
+                                                  CourseEnrollmentRepository enrollmentRepository) {
+        // Điền các cột phi chuẩn hóa (effective_price, average_rating, enrollment_count, view_count, lesson_count,
+        // completed_lessons) cho dữ liệu cũ
+        return args -> {
+            int prices = courseRepository.backfillEffectivePrice();
+            int ratings = courseRepository.backfillAverageRating();
+            int enrollments = courseRepository.backfillEnrollmentCount();
+            int views = courseRepository.backfillViewCount();
+            int lessons = courseRepository.backfillLessonCount();
+            int progress = enrollmentRepository.backfillCompletedLessons();
+            if (prices + ratings + enrollments + views + lessons + progress > 0) {
+                log.info("Backfilled course columns: effective_price={}, average_rating={}, enrollment_count={}, " +
+                                "view_count={}, lesson_count={}, completed_lessons={}",
+                        prices, ratings, enrollments, views, lessons, progress);
+            }
+        };
+    }
+
+    @Bean
+    ApplicationRunner courseSearchIndexRunner(CourseSearchIndex courseSearchIndex) {
+        return args -> courseSearchIndex.rebuild();
+    }
+
 }
@@ -0,0 +1,37 @@
+package org.nlu.backend.configuration;
+
+import org.nlu.backend.exception.AppException;
+import org.nlu.backend.exception.ErrorCode;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Set;
+
+/**
+ * Người dùng của request hiện tại, dựng một lần từ claim của JWT (xem {@link CachingJwtAuthenticationProvider}).
+ * <p>
+ * Là principal của {@link UserJwtAuthenticationToken}, nên controller nhận được qua
+ * {@code @AuthenticationPrincipal AuthenticatedUser user}; service dùng {@link #current()}.
+ * Không cần truy vấn bảng users để biết id hay role.
+ */
+public record AuthenticatedUser(Long userId, String email, Set<String> roles) {
+
+    public static final String USER_ID_CLAIM = "userId";
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+
+    public boolean isAdmin() {
+        return hasRole("ADMIN");
+    }
+
+    public static AuthenticatedUser current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user)
+                || user.userId() == null) {
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
+        }
+        return user;
+    }
+}
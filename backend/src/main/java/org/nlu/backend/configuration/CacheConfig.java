@@ -0,0 +1,52 @@
+package org.nlu.backend.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    // CourseResponse theo id khóa học (bao gồm danh sách bài học)
+    public static final String COURSE_DETAIL = "courseDetail";
+    // Các trang catalog, kết quả lọc và tìm kiếm (CourseSummaryResponse)
+    public static final String COURSE_LISTINGS = "courseListings";
+
+    @Value("${cache.course-detail.maximum-size:5000}")
+    private long courseDetailMaximumSize;
+
+    @Value("${cache.course-detail.ttl-seconds:600}")
+    private long courseDetailTtlSeconds;
+
+    @Value("${cache.course-listings.maximum-size:2000}")
+    private long courseListingsMaximumSize;
+
+    @Value("${cache.course-listings.ttl-seconds:60}")
+    private long courseListingsTtlSeconds;
+
+    @Bean
+    CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // recordStats() để actuator xuất cache.gets{result=hit|miss}, cache.evictions...
+        cacheManager.registerCustomCache(COURSE_DETAIL, Caffeine.newBuilder()
+                .maximumSize(courseDetailMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(courseDetailTtlSeconds))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(COURSE_LISTINGS, Caffeine.newBuilder()
+                .maximumSize(courseListingsMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(courseListingsTtlSeconds))
+                .recordStats()
+                .build());
+
+        // Evict chỉ thực hiện sau khi transaction commit, tránh nạp lại dữ liệu cũ vào cache
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
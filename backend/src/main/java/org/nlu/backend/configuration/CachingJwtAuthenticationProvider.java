@@ -0,0 +1,76 @@
+package org.nlu.backend.configuration;
+
+import org.nlu.backend.repository.UserRepository;
+import org.nlu.backend.service.token.JwtAuthenticationCache;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Xác thực bearer token như {@link JwtAuthenticationProvider}, nhưng dùng lại kết quả của các lần trước
+ * với cùng token từ {@link JwtAuthenticationCache}. Lần đầu gặp token vẫn đi qua bộ giải mã đầy đủ
+ * (chữ ký, exp, thu hồi)
+ * và dựng {@link AuthenticatedUser} từ claim một lần.
+ */
+public class CachingJwtAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final JwtAuthenticationProvider delegate;
+    private final JwtAuthenticationCache jwtAuthenticationCache;
+    private final UserRepository userRepository;
+
+    public CachingJwtAuthenticationProvider(JwtAuthenticationProvider delegate,
+                                            JwtAuthenticationCache jwtAuthenticationCache,
+                                            UserRepository userRepository) {
+        this.delegate = delegate;
+        this.jwtAuthenticationCache = jwtAuthenticationCache;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        BearerTokenAuthenticationToken bearer = (BearerTokenAuthenticationToken) authentication;
+        String key = JwtAuthenticationCache.keyOf(bearer.getToken());
+
+        JwtAuthenticationCache.Entry entry = jwtAuthenticationCache.get(key);
+        if (entry == null) {
+            JwtAuthenticationToken decoded = (JwtAuthenticationToken) delegate.authenticate(bearer);
+            entry = new JwtAuthenticationCache.Entry(decoded.getToken(), decoded.getAuthorities(), toUser(decoded));
+            jwtAuthenticationCache.put(key, entry);
+        }
+
+        // Token xác thực mới cho mỗi request (details như địa chỉ IP là của request này)
+        UserJwtAuthenticationToken result = new UserJwtAuthenticationToken(entry.jwt(), entry.authorities(), entry.user());
+        result.setDetails(bearer.getDetails());
+        return result;
+    }
+
+    private AuthenticatedUser toUser(JwtAuthenticationToken decoded) {
+        Jwt jwt = decoded.getToken();
+        Object claim = jwt.getClaims().get(AuthenticatedUser.USER_ID_CLAIM);
+        Long userId = claim instanceof Number number
+                ? Long.valueOf(number.longValue())
+                // Token phát hành trước khi có claim userId: tra một lần, sau đó nằm trong cache
+                : userRepository.findIdByEmail(decoded.getName()).orElse(null);
+        Set<String> roles = decoded.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(ROLE_PREFIX))
+                .map(authority -> authority.substring(ROLE_PREFIX.length()))
+                .collect(Collectors.toUnmodifiableSet());
+        return new AuthenticatedUser(userId, decoded.getName(), roles);
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return BearerTokenAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+}
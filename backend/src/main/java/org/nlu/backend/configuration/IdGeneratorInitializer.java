@@ -0,0 +1,63 @@
+package org.nlu.backend.configuration;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.nlu.backend.entity.IdGenerators;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Đồng bộ bảng {@code id_generators} với dữ liệu sẵn có trước khi ứng dụng nhận request.
+ * <p>
+ * Các bảng trước đây dùng AUTO_INCREMENT nên đã có id; nếu bộ sinh id bắt đầu từ 1 sẽ bị trùng khóa.
+ * Chạy sau khi Hibernate cập nhật schema và chỉ tăng {@code next_val}, không bao giờ giảm,
+ * nên an toàn khi nhiều instance cùng khởi động.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class IdGeneratorInitializer implements InitializingBean {
+
+    // pkColumnValue của từng @TableGenerator trùng với tên bảng của entity
+    static final List<String> GENERATED_TABLES =
+            List.of("courses", "lessons", "orders", "order_details", "course_enrollments");
+
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        for (String table : GENERATED_TABLES) {
+            // Hibernate lưu giá trị đã cấp phát gần nhất, id tiếp theo sẽ là next_val + 1
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long lastValue = maxId == null ? 0 : maxId;
+
+            int updated = jdbcTemplate.update(
+                    "UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN + " = ?"
+                            + " WHERE " + IdGenerators.NAME_COLUMN + " = ? AND " + IdGenerators.VALUE_COLUMN + " < ?",
+                    lastValue, table, lastValue);
+            if (updated == 0) {
+                Integer existing = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM " + IdGenerators.TABLE + " WHERE " + IdGenerators.NAME_COLUMN + " = ?",
+                        Integer.class, table);
+                if (existing == null || existing == 0) {
+                    jdbcTemplate.update(
+                            "INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.NAME_COLUMN + ", "
+                                    + IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)",
+                            table, lastValue);
+                    updated = 1;
+                }
+            }
+            if (updated > 0) {
+                log.info("Id generator for {} continues after {}", table, lastValue);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.nlu.backend.configuration;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.nlu.backend.entity.IdGenerators;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    /**
+     * Bật JDBC batching cho các thao tác ghi nhiều dòng (import khóa học, tạo đơn hàng, ghi danh...).
+     * Chỉ đặt giá trị mặc định: nếu application.properties đã khai báo {@code spring.jpa.properties.*}
+     * tương ứng thì giữ nguyên giá trị đó.
+     * <p>
+     * Với MySQL, thêm {@code rewriteBatchedStatements=true} vào JDBC URL để driver gộp batch thành
+     * một câu INSERT nhiều dòng.
+     */
+    @Bean
+    HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(IdGenerators.ALLOCATION_SIZE));
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, "true");
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, "true");
+            properties.putIfAbsent(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo");
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package org.nlu.backend.configuration;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Chuyển cột {@code orders.payment_method} của các database cũ từ ENUM sang VARCHAR.
+ * <p>
+ * Hibernate (ddl-auto=update) không sửa kiểu của cột đã có, nên ENUM tạo từ trước không chấp nhận
+ * các phương thức mới như {@code ADMIN_GRANT}. Chỉ ALTER khi cột vẫn là ENUM, nên chạy lại hay nhiều
+ * instance cùng khởi động đều an toàn.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class OrderColumnsInitializer implements InitializingBean {
+
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        List<String> types = jdbcTemplate.queryForList(
+                "SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND COLUMN_NAME = 'payment_method'",
+                String.class);
+        if (types.isEmpty() || !"enum".equalsIgnoreCase(types.get(0))) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE orders MODIFY payment_method VARCHAR(20) NOT NULL");
+        log.info("Converted orders.payment_method from ENUM to VARCHAR(20)");
+    }
+}
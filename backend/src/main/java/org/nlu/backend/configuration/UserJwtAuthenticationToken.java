@@ -0,0 +1,35 @@
+package org.nlu.backend.configuration;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Kết quả xác thực bearer token với principal là {@link AuthenticatedUser} thay vì {@link Jwt}.
+ * {@link #getName()} vẫn là email (subject) như trước.
+ */
+public class UserJwtAuthenticationToken extends AbstractOAuth2TokenAuthenticationToken<Jwt> {
+
+    public UserJwtAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities, AuthenticatedUser user) {
+        super(jwt, user, jwt, authorities);
+        setAuthenticated(true);
+    }
+
+    @Override
+    public AuthenticatedUser getPrincipal() {
+        return (AuthenticatedUser) super.getPrincipal();
+    }
+
+    @Override
+    public Map<String, Object> getTokenAttributes() {
+        return getToken().getClaims();
+    }
+
+    @Override
+    public String getName() {
+        return getPrincipal().email();
+    }
+}
@@ -1,12 +1,21 @@
 package org.nlu.backend.configuration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    // Thời gian chờ cho response bất đồng bộ không tự đặt timeout (StreamingResponseBody của /enrollments/grants);
+    // mặc định của Tomcat là 30 giây, không đủ cho một lô cấp quyền lớn. SseEmitter vẫn dùng timeout riêng.
+    @Value("${web.async.request-timeout-seconds:900}")
+    private long asyncRequestTimeoutSeconds;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -16,4 +25,9 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(true)
                 .maxAge(3600); // 1 hour
     }
-} 
\ No newline at end of file
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(Duration.ofSeconds(asyncRequestTimeoutSeconds).toMillis());
+    }
+}
@@ -5,6 +5,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.nlu.backend.dto.ApiResponse;
 import org.nlu.backend.dto.request.course.*;
+import org.nlu.backend.dto.response.course.CourseImportResponse;
+import org.nlu.backend.dto.response.course.CoursePageResponse;
 import org.nlu.backend.dto.response.course.CourseResponse;
 import org.nlu.backend.dto.response.course.CourseSummaryResponse;
 import org.nlu.backend.service.course.ICourseService;
@@ -28,6 +30,16 @@ public class CourseController {
                 .build());
     }
 
+    @GetMapping("/catalog")
+    public ResponseEntity<ApiResponse<CoursePageResponse>> getCoursePage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(ApiResponse.<CoursePageResponse>builder()
+                .data(courseService.getCoursePage(cursor, size, includeTotal))
+                .build());
+    }
+
     @GetMapping("/my-courses")
     public ResponseEntity<ApiResponse<List<CourseSummaryResponse>>> getMyCourses() {
         return ResponseEntity.ok(ApiResponse.<List<CourseSummaryResponse>>builder()
@@ -37,8 +49,11 @@ public class CourseController {
 
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<CourseResponse>> getCourseById(@PathVariable Long id) {
+        CourseResponse course = courseService.getCourseById(id);
+        // Chỉ đếm khi khóa học tồn tại (getCourseById ném COURSE_NOT_FOUND trước đó)
+        courseService.recordCourseView(id);
         return ResponseEntity.ok(ApiResponse.<CourseResponse>builder()
-                .data(courseService.getCourseById(id))
+                .data(course)
                 .build());
     }
 
@@ -57,6 +72,13 @@ public class CourseController {
                 .build());
     }
 
+    @PostMapping("/import")
+    public ResponseEntity<ApiResponse<CourseImportResponse>> importCourses(@RequestBody List<CourseImportRequest> requests) {
+        return ResponseEntity.ok(ApiResponse.<CourseImportResponse>builder()
+                .data(courseService.importCourses(requests))
+                .build());
+    }
+
     @PostMapping("/filter")
     public ResponseEntity<ApiResponse<List<CourseSummaryResponse>>> filterCourses(@RequestBody CourseFilterRequest request) {
         return ResponseEntity.ok(ApiResponse.<List<CourseSummaryResponse>>builder()
@@ -64,6 +86,13 @@ public class CourseController {
                 .build());
     }
 
+    @PostMapping("/filter/page")
+    public ResponseEntity<ApiResponse<CoursePageResponse>> filterCoursePage(@RequestBody CourseFilterRequest request) {
+        return ResponseEntity.ok(ApiResponse.<CoursePageResponse>builder()
+                .data(courseService.filterCoursePage(request))
+                .build());
+    }
+
     //-------------- PUT MAPPING --------------
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<CourseResponse>> updateCourse(@PathVariable Long id, @RequestBody CourseUpdateRequest request) {
@@ -1,15 +1,26 @@
 package org.nlu.backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.nlu.backend.dto.request.enrollment.EnrollmentGrantRequest;
+import org.nlu.backend.dto.request.enrollment.LessonProgressEventRequest;
+import org.nlu.backend.dto.response.course.EnrolledCoursePageResponse;
 import org.nlu.backend.dto.response.course.EnrolledCourseResponse;
+import org.nlu.backend.service.enrollment.IEnrollmentGrantService;
 import org.nlu.backend.service.enrollment.IEnrollmentService;
+import org.nlu.backend.service.progress.ILessonProgressService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -18,6 +29,9 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class EnrollmentController {
     IEnrollmentService enrollmentService;
+    IEnrollmentGrantService enrollmentGrantService;
+    ILessonProgressService lessonProgressService;
+    ObjectMapper objectMapper;
 
 //    //-------------- GET MAPPING --------------
 //    @GetMapping("/my-courses")
@@ -82,6 +96,46 @@ public class EnrollmentController {
         return ResponseEntity.ok(enrolledCourses);
     }
 
+    // Phân trang keyset (mới ghi danh trước) cho học viên có nhiều khóa học
+    @GetMapping("/enrolled-courses/page")
+    public ResponseEntity<EnrolledCoursePageResponse> getEnrolledCoursePage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(enrollmentService.getEnrolledCoursePage(cursor, size));
+    }
+
+    // Trang catalog gọi một lần cho cả danh sách thẻ: trả về các id trong courseIds mà người dùng đã mua
+    @GetMapping("/owned")
+    public ResponseEntity<List<Long>> getOwnedCourseIds(@RequestParam List<Long> courseIds) {
+        return ResponseEntity.ok(enrollmentService.getOwnedCourseIds(courseIds));
+    }
+
+    // Admin cấp quyền hàng loạt; báo cáo từng dòng dạng NDJSON, được ghi ra dần sau mỗi lô đã commit
+    @PostMapping("/grants")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> grantEnrollments(@RequestBody List<EnrollmentGrantRequest> grants) {
+        // Kiểm tra trước khi trả body: lỗi quyền/kích thước phải thành 4xx, không phải 200 rồi đứt stream
+        enrollmentGrantService.validateGrants(grants);
+        StreamingResponseBody body = out -> enrollmentGrantService.grantEnrollments(grants, result -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(result));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Heartbeat / hoàn thành bài học; được ghi xuống DB theo lô nên trả về 202
+    @PostMapping("/progress")
+    public ResponseEntity<Void> recordProgress(@RequestBody LessonProgressEventRequest request) {
+        lessonProgressService.recordProgress(request);
+        return ResponseEntity.accepted().build();
+    }
+
 }
 
 
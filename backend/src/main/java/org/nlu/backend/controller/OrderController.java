@@ -4,6 +4,8 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.nlu.backend.dto.ApiResponse;
+import org.nlu.backend.dto.request.order.CheckoutRequest;
+import org.nlu.backend.dto.response.order.OrderPageResponse;
 import org.nlu.backend.dto.response.order.OrderResponse;
 import org.nlu.backend.service.order.IOrderService;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +17,17 @@ import org.springframework.web.bind.annotation.*;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class OrderController {
     IOrderService orderService;
+
+    @GetMapping("/my-orders")
+    public ResponseEntity<ApiResponse<OrderPageResponse>> getMyOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(ApiResponse.<OrderPageResponse>builder()
+                .code(200)
+                .message("Success")
+                .data(orderService.getMyOrders(cursor, size))
+                .build());
+    }
     
     @GetMapping("/{orderId}")
     public ResponseEntity<ApiResponse<OrderResponse>> getOrderById(@PathVariable Long orderId) {
@@ -37,4 +50,13 @@ public class OrderController {
                 .data(order)
                 .build());
     }
+
+    @PostMapping("/checkout")
+    public ResponseEntity<ApiResponse<OrderResponse>> checkout(@RequestBody CheckoutRequest request) {
+        return ResponseEntity.ok(ApiResponse.<OrderResponse>builder()
+                .code(200)
+                .message("Success")
+                .data(orderService.checkout(request))
+                .build());
+    }
 }
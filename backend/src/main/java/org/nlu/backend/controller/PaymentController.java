@@ -7,8 +7,10 @@ import org.nlu.backend.dto.ApiResponse;
 import org.nlu.backend.dto.request.payment.BankWebhookRequest;
 import org.nlu.backend.service.payment.IPaymentService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/payment")
@@ -23,7 +25,7 @@ public class PaymentController {
         
         ApiResponse<Object> response = ApiResponse.builder()
                 .code(success ? 200 : 400)
-                .message(success ? "Payment processed successfully" : "Failed to process payment")
+                .message(success ? "Payment received" : "Failed to process payment")
                 .build();
                 
         return ResponseEntity.status(success ? HttpStatus.OK : HttpStatus.BAD_REQUEST).body(response);
@@ -63,4 +65,12 @@ public class PaymentController {
                 
         return ResponseEntity.ok(response);
     }
+
+    // Thay cho việc gọi check-status liên tục: nhận một event "payment-status" khi thanh toán được ghi nhận
+    @GetMapping(value = "/status-stream/{courseId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPaymentStatus(
+            @PathVariable Long courseId,
+            @RequestParam Long userId) {
+        return paymentService.subscribePaymentStatus(userId, courseId);
+    }
 }
@@ -22,6 +22,11 @@ public class CourseFilterRequest {
     BigDecimal maxPrice;
 
     Long sellerId; // Filter by course owner (seller)
-    String sortBy; // Sorting field (e.g., price, title, createdAt...)
-    String sortDirection; // Sorting direction: asc / desc
+    String sortBy; // Sort option (see CourseSortOption), e.g. NEWEST, PRICE_ASC, RATING...
+    String sortDirection; // Sorting direction: asc / desc (only used with legacy field names)
+
+    // Keyset pagination
+    String cursor; // nextCursor of the previous page, null for the first page
+    Integer size; // Page size, capped on the server
+    boolean includeTotal; // Also return the total number of matching courses
 }
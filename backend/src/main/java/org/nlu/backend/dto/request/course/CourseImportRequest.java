@@ -0,0 +1,27 @@
+package org.nlu.backend.dto.request.course;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.nlu.backend.dto.request.lesson.LessonCreationRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CourseImportRequest {
+    private String title;
+    private String description;
+    private BigDecimal price;
+    private BigDecimal discountPrice;
+
+    private Long categoryId; // category's id of the course
+    private Long levelId; // level's id of the course
+
+    private String thumbnailUrl;
+
+    private List<LessonCreationRequest> lessons; // lessons in display order
+}
@@ -0,0 +1,105 @@
+package org.nlu.backend.dto.request.course;
+
+import org.nlu.backend.dto.response.course.CourseSummaryResponse;
+import org.nlu.backend.exception.AppException;
+import org.nlu.backend.exception.ErrorCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Sort orders allowed on the course catalog. Each one sorts on a single indexed column
+ * with id as tie-breaker (see the indexes on Course), so pages can be fetched by keyset.
+ */
+public enum CourseSortOption {
+    NEWEST("createdAt", false, LocalDateTime::parse, CourseSummaryResponse::getCreatedAt),
+    OLDEST("createdAt", true, LocalDateTime::parse, CourseSummaryResponse::getCreatedAt),
+    PRICE_ASC("effectivePrice", true, BigDecimal::new, CourseSummaryResponse::getEffectivePrice),
+    PRICE_DESC("effectivePrice", false, BigDecimal::new, CourseSummaryResponse::getEffectivePrice),
+    RATING("averageRating", false, Double::valueOf, CourseSummaryResponse::getAverageRating),
+    POPULARITY("enrollmentCount", false, Long::valueOf, CourseSummaryResponse::getEnrollmentCount),
+    MOST_VIEWED("viewCount", false, Long::valueOf, CourseSummaryResponse::getViewCount),
+    TITLE("title", true, Function.identity(), CourseSummaryResponse::getTitle),
+    TITLE_DESC("title", false, Function.identity(), CourseSummaryResponse::getTitle);
+
+    private final String attribute;
+    private final boolean ascending;
+    private final Function<String, ? extends Comparable<?>> parser;
+    private final Function<CourseSummaryResponse, Object> extractor;
+
+    CourseSortOption(String attribute, boolean ascending,
+                     Function<String, ? extends Comparable<?>> parser,
+                     Function<CourseSummaryResponse, Object> extractor) {
+        this.attribute = attribute;
+        this.ascending = ascending;
+        this.parser = parser;
+        this.extractor = extractor;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public String cursorValueOf(CourseSummaryResponse course) {
+        return String.valueOf(extractor.apply(course));
+    }
+
+    public Comparable<?> parseCursorValue(String value) {
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * Resolve a sort option from the request. Accepts option names ("PRICE_ASC", "price-asc")
+     * as well as the entity field names the frontend used to send ("discountPrice" + "asc", "id" + "desc").
+     * A field name without direction keeps its natural order (newest first, title A-Z); rating, popularity
+     * and views only exist as "best first" and reject an ascending direction.
+     * @return null when no sort was requested
+     */
+    public static CourseSortOption from(String sortBy, String sortDirection) {
+        if (sortBy == null || sortBy.isBlank()) {
+            return null;
+        }
+        boolean ascending = "asc".equalsIgnoreCase(sortDirection);
+        boolean descending = "desc".equalsIgnoreCase(sortDirection);
+        if (sortDirection != null && !sortDirection.isBlank() && !ascending && !descending) {
+            throw new AppException(ErrorCode.INVALID_SORT_OPTION);
+        }
+        switch (sortBy) {
+            case "id", "createdAt":
+                return ascending ? OLDEST : NEWEST;
+            case "price", "discountPrice", "effectivePrice":
+                return ascending ? PRICE_ASC : PRICE_DESC;
+            case "rating", "averageRating":
+                return descendingOnly(RATING, ascending);
+            case "popularity", "enrollmentCount":
+                return descendingOnly(POPULARITY, ascending);
+            case "views", "viewCount":
+                return descendingOnly(MOST_VIEWED, ascending);
+            case "title":
+                return descending ? TITLE_DESC : TITLE;
+            default:
+                try {
+                    return valueOf(sortBy.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+                } catch (IllegalArgumentException e) {
+                    throw new AppException(ErrorCode.INVALID_SORT_OPTION);
+                }
+        }
+    }
+
+    private static CourseSortOption descendingOnly(CourseSortOption option, boolean ascending) {
+        if (ascending) {
+            throw new AppException(ErrorCode.INVALID_SORT_OPTION);
+        }
+        return option;
+    }
+}
@@ -0,0 +1,15 @@
+package org.nlu.backend.dto.request.enrollment;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+// Một dòng của yêu cầu cấp quyền hàng loạt (admin ghi danh học viên vào khóa học)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EnrollmentGrantRequest {
+    private Long userId;
+    private Long courseId;
+}
@@ -0,0 +1,17 @@
+package org.nlu.backend.dto.request.enrollment;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LessonProgressEventRequest {
+    private Long lessonId;
+    // Vị trí đang xem (giây); gửi định kỳ như heartbeat
+    private int positionSeconds;
+    // true khi học viên xem hết / đánh dấu hoàn thành bài học
+    private boolean completed;
+}
@@ -0,0 +1,13 @@
+package org.nlu.backend.dto.request.order;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CheckoutRequest {
+    private Long courseId;
+}
@@ -0,0 +1,17 @@
+package org.nlu.backend.dto.response.course;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CourseImportResponse {
+    private int courseCount;
+    private int lessonCount;
+    private List<Long> courseIds; // same order as the imported courses
+}
@@ -0,0 +1,22 @@
+package org.nlu.backend.dto.response.course;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+
+// When to use : return one page of the course catalog (cursor-based)
+public class CoursePageResponse {
+    private List<CourseSummaryResponse> items;
+    private String nextCursor; // null khi đã là trang cuối
+    private boolean hasNext;
+    private Long totalCount; // chỉ có khi client yêu cầu includeTotal
+}
@@ -2,9 +2,10 @@ package org.nlu.backend.dto.response.course;
 
 import lombok.*;
 import lombok.experimental.FieldDefaults;
-import org.nlu.backend.dto.response.category.CategoryResponse;
+import org.nlu.backend.entity.Course;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @AllArgsConstructor
@@ -23,4 +24,19 @@ public class CourseSummaryResponse {
     private String sellerName;
     private String categoryName;
     private String status;
+    private LocalDateTime createdAt;
+    private BigDecimal effectivePrice;
+    private Double averageRating;
+    private Long enrollmentCount;
+    private Long viewCount;
+
+    // Constructor expression cho projection (CourseRepositoryCustomImpl) - status trong entity là enum
+    public CourseSummaryResponse(Long id, String title, BigDecimal price, BigDecimal discountPrice, String thumbnailUrl,
+                                 String levelName, String sellerName, String categoryName,
+                                 Course.CourseStatus status, LocalDateTime createdAt, BigDecimal effectivePrice,
+                                 Double averageRating, Long enrollmentCount, Long viewCount) {
+        this(id, title, price, discountPrice, thumbnailUrl, levelName, sellerName, categoryName,
+                status != null ? status.name() : null, createdAt, effectivePrice, averageRating, enrollmentCount,
+                viewCount);
+    }
 }
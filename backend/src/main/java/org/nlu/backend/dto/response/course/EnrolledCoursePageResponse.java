@@ -0,0 +1,19 @@
+package org.nlu.backend.dto.response.course;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+
+// When to use : return one page of the current user's enrolled courses (cursor-based, newest first)
+public class EnrolledCoursePageResponse {
+    private List<EnrolledCourseResponse> items;
+    private String nextCursor; // null khi đã là trang cuối
+    private boolean hasNext;
+}
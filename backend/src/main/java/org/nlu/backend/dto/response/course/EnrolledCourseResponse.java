@@ -23,4 +23,20 @@ public class EnrolledCourseResponse {
     private LocalDateTime enrollmentDate;
     private Double progress;
     private Course.CourseStatus status;
+
+    // Dùng trong câu JPQL của CourseEnrollmentRepository: tiến độ tính từ hai bộ đếm đã duy trì sẵn
+    public EnrolledCourseResponse(Long id, String title, String description, String thumbnail, BigDecimal price,
+                                  String instructorName, LocalDateTime enrollmentDate,
+                                  Integer completedLessons, Integer lessonCount, Course.CourseStatus status) {
+        this(id, title, description, thumbnail, price, instructorName, enrollmentDate,
+                progressOf(completedLessons, lessonCount), status);
+    }
+
+    // % bài đã hoàn thành (0-100, một chữ số thập phân)
+    public static double progressOf(Integer completedLessons, Integer lessonCount) {
+        if (completedLessons == null || lessonCount == null || lessonCount <= 0) {
+            return 0.0;
+        }
+        return Math.min(100.0, Math.round(completedLessons * 1000.0 / lessonCount) / 10.0);
+    }
 } 
\ No newline at end of file
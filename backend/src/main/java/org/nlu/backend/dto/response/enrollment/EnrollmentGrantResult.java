@@ -0,0 +1,27 @@
+package org.nlu.backend.dto.response.enrollment;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+// Kết quả của một dòng trong yêu cầu cấp quyền hàng loạt; row là vị trí (từ 0) trong request
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EnrollmentGrantResult {
+    private int row;
+    private Long userId;
+    private Long courseId;
+    private Status status;
+
+    public enum Status {
+        GRANTED,
+        ALREADY_ENROLLED,
+        DUPLICATE, // cặp (userId, courseId) đã xuất hiện ở dòng trước trong cùng request
+        USER_NOT_FOUND,
+        COURSE_NOT_FOUND,
+        INVALID,
+        FAILED
+    }
+}
@@ -0,0 +1,21 @@
+package org.nlu.backend.dto.response.order;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class OrderPageResponse {
+    List<OrderResponse> items;
+    String nextCursor; // null khi đã là trang cuối
+    boolean hasNext;
+}
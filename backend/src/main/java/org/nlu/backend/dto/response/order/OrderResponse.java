@@ -26,5 +26,6 @@ public class OrderResponse {
     Order.OrderStatus status;
     Order.PaymentMethod paymentMethod;
     Order.PaymentStatus paymentStatus;
+    String paymentReference;
     List<OrderDetailResponse> orderDetails;
 } 
\ No newline at end of file
@@ -9,7 +9,19 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "courses")
+@Table(name = "courses", indexes = {
+        @Index(name = "idx_courses_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_courses_status_category_price", columnList = "status, category_id, effective_price"),
+        @Index(name = "idx_courses_status_level_price", columnList = "status, level_id, effective_price"),
+        // Index phục vụ các kiểu sắp xếp của catalog (CourseSortOption), id làm khóa phụ cho keyset
+        @Index(name = "idx_courses_effective_price_id", columnList = "effective_price, id"),
+        @Index(name = "idx_courses_average_rating_id", columnList = "average_rating, id"),
+        @Index(name = "idx_courses_enrollment_count_id", columnList = "enrollment_count, id"),
+        @Index(name = "idx_courses_view_count_id", columnList = "view_count, id"),
+        @Index(name = "idx_courses_title_id", columnList = "title, id"),
+        // CourseSearchIndex đọc các khóa học vừa sửa để làm mới chỉ mục
+        @Index(name = "idx_courses_updated_at", columnList = "updated_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -19,7 +31,10 @@ import java.util.Set;
 @EqualsAndHashCode(exclude = {"category", "level", "seller", "lessons"})
 public class Course extends BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "course_id")
+    @TableGenerator(name = "course_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "courses",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     Long id;
 
     @Column(nullable = false)
@@ -34,6 +49,28 @@ public class Course extends BaseEntity {
     @Column(name = "discount_price", precision = 10, scale = 2)
     BigDecimal discountPrice;
 
+    // Giá cuối cùng người mua phải trả, luôn được tính lại từ price/discountPrice trước khi ghi
+    @Column(name = "effective_price", precision = 10, scale = 2)
+    BigDecimal effectivePrice;
+
+    // Các cột đếm/trung bình dưới đây chỉ được ghi khi INSERT và qua câu UPDATE cộng dồn trong CourseRepository,
+    // updatable = false để việc lưu entity (sửa tiêu đề, giá...) không ghi đè giá trị cũ đã đọc lên bộ đếm mới hơn
+    // Điểm đánh giá trung bình, cập nhật mỗi khi có review mới
+    @Column(name = "average_rating", updatable = false)
+    Double averageRating;
+
+    // Số lượt đăng ký, dùng cho sắp xếp "phổ biến nhất"; cộng dồn theo lô bởi CourseCounterBuffer
+    @Column(name = "enrollment_count", updatable = false)
+    Long enrollmentCount;
+
+    // Số lượt xem trang chi tiết, cộng dồn theo lô bởi CourseCounterBuffer
+    @Column(name = "view_count", updatable = false)
+    Long viewCount;
+
+    // Số bài học, dùng để tính % tiến độ mà không đếm bảng lessons
+    @Column(name = "lesson_count", updatable = false)
+    Integer lessonCount;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     Category category;
@@ -51,10 +88,40 @@ public class Course extends BaseEntity {
     CourseStatus status;
 
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("order ASC, id ASC")
     List<Lesson> lessons;
 
     String thumbnailUrl;
 
+    @PrePersist
+    void initDenormalizedColumns() {
+        if (averageRating == null) {
+            averageRating = 0.0;
+        }
+        if (enrollmentCount == null) {
+            enrollmentCount = 0L;
+        }
+        if (viewCount == null) {
+            viewCount = 0L;
+        }
+        if (lessonCount == null) {
+            lessonCount = lessons == null ? 0 : lessons.size();
+        }
+        syncEffectivePrice();
+    }
+
+    @PreUpdate
+    void syncEffectivePrice() {
+        effectivePrice = effectivePriceOf(price, discountPrice);
+    }
+
+    public static BigDecimal effectivePriceOf(BigDecimal price, BigDecimal discountPrice) {
+        if (discountPrice != null && price != null && discountPrice.compareTo(price) < 0) {
+            return discountPrice;
+        }
+        return price;
+    }
+
     public enum CourseStatus {
         DRAFT, PUBLISHED, ARCHIVED, PENDING_APPROVAL, REJECTED
     }
@@ -7,7 +7,13 @@ import lombok.experimental.FieldDefaults;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "course_enrollments")
+@Table(name = "course_enrollments", uniqueConstraints = {
+        // Mỗi học viên chỉ ghi danh một khóa học một lần, kể cả khi có request đồng thời
+        @UniqueConstraint(name = "uk_course_enrollments_user_course", columnNames = {"user_id", "course_id"})
+}, indexes = {
+        // Danh sách khóa học đã ghi danh, phân trang keyset theo (created_at, course_id)
+        @Index(name = "idx_course_enrollments_user_created_course", columnList = "user_id, created_at, course_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,7 +23,10 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(exclude = {"user", "course", "order"})
 public class CourseEnrollment extends BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "course_enrollment_id")
+    @TableGenerator(name = "course_enrollment_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "course_enrollments",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -34,4 +43,15 @@ public class CourseEnrollment extends BaseEntity {
 
     @Column(name = "enrollment_date")
     LocalDateTime enrollmentDate;
+
+    // Số bài đã hoàn thành, được LessonProgressBuffer cộng dồn khi ghi tiến độ
+    @Column(name = "completed_lessons")
+    Integer completedLessons;
+
+    @PrePersist
+    void initCompletedLessons() {
+        if (completedLessons == null) {
+            completedLessons = 0;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package org.nlu.backend.entity;
+
+/**
+ * Cấu hình dùng chung cho các bảng sinh id theo lô (thay cho AUTO_INCREMENT).
+ * <p>
+ * Với IDENTITY, Hibernate phải INSERT từng dòng để lấy id nên không thể gom lệnh JDBC thành batch.
+ * Các entity ghi nhiều (course, lesson, order, enrollment...) lấy id từ bảng {@value #TABLE}:
+ * mỗi lần chiếm trước {@value #ALLOCATION_SIZE} giá trị (optimizer pooled-lo), nên các INSERT
+ * phía sau có thể được gom lại.
+ */
+public final class IdGenerators {
+    public static final String TABLE = "id_generators";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGenerators() {
+    }
+}
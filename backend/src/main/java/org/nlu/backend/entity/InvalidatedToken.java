@@ -2,6 +2,8 @@ package org.nlu.backend.entity;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
@@ -14,8 +16,14 @@ import java.util.Date;
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_invalidated_token_expiry_time", columnList = "expiry_time"),
+        @Index(name = "idx_invalidated_token_created_at", columnList = "created_at")
+})
 public class InvalidatedToken {
     @Id
     String id;
     Date expiryTime;
-}
\ No newline at end of file
+    // Thời điểm thu hồi, để các instance khác chỉ đọc phần mới (xem TokenRevocationRegistry)
+    Date createdAt;
+}
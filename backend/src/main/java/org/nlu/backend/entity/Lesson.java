@@ -5,7 +5,9 @@ import lombok.*;
 import lombok.experimental.FieldDefaults;
 
 @Entity
-@Table(name = "lessons")
+@Table(name = "lessons", indexes = {
+        @Index(name = "idx_lessons_course_order", columnList = "course_id, lesson_order")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -13,7 +15,10 @@ import lombok.experimental.FieldDefaults;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Lesson extends BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "lesson_id")
+    @TableGenerator(name = "lesson_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "lessons",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
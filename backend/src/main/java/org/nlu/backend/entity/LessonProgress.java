@@ -0,0 +1,56 @@
+package org.nlu.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Tiến độ của một học viên trên một bài học. Khóa tự nhiên (user_id, lesson_id) nên ghi theo lô bằng JDBC
+ * không cần bộ sinh id; xem {@code LessonProgressBuffer}.
+ */
+@Entity
+@Table(name = "lesson_progress", indexes = {
+        @Index(name = "idx_lesson_progress_lesson", columnList = "lesson_id")
+})
+@IdClass(LessonProgress.Key.class)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LessonProgress {
+
+    @Id
+    @Column(name = "user_id")
+    Long userId;
+
+    @Id
+    @Column(name = "lesson_id")
+    Long lessonId;
+
+    @Column(name = "course_id", nullable = false)
+    Long courseId;
+
+    // Vị trí xem xa nhất (giây), chỉ tăng
+    @Column(name = "position_seconds", nullable = false)
+    int positionSeconds;
+
+    // Null khi chưa hoàn thành
+    @Column(name = "completed_at")
+    LocalDateTime completedAt;
+
+    @Column(name = "last_viewed_at", nullable = false)
+    LocalDateTime lastViewedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        Long userId;
+        Long lessonId;
+    }
+}
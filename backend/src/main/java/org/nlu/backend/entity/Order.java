@@ -3,12 +3,20 @@ package org.nlu.backend.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.util.Set;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "uk_orders_payment_reference", columnList = "payment_reference", unique = true),
+        // PendingOrderSweeper tìm đơn PENDING quá hạn theo created_at
+        @Index(name = "idx_orders_status_created_at", columnList = "status, created_at"),
+        // Lịch sử đơn hàng của người dùng, phân trang keyset theo (created_at, id)
+        @Index(name = "idx_orders_user_created_id", columnList = "user_id, created_at, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,7 +26,10 @@ import java.util.Set;
 @EqualsAndHashCode(exclude = {"orderDetails", "enrollments"})
 public class Order extends BaseEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_id")
+    @TableGenerator(name = "order_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "orders",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -32,14 +43,20 @@ public class Order extends BaseEntity {
     @Column(nullable = false)
     OrderStatus status;
 
+    // Lưu dạng VARCHAR thay vì ENUM của MySQL để thêm phương thức mới không cần ALTER cột (xem OrderColumnsInitializer)
     @Enumerated(EnumType.STRING)
-    @Column(name = "payment_method", nullable = false)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "payment_method", nullable = false, length = 20)
     PaymentMethod paymentMethod;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "payment_status")
     PaymentStatus paymentStatus;
 
+    // Mã người mua ghi vào nội dung chuyển khoản (PaymentReferenceCodec), chỉ có với đơn tạo qua checkout
+    @Column(name = "payment_reference", length = 16)
+    String paymentReference;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     Set<OrderDetail> orderDetails;
 
@@ -51,7 +68,9 @@ public class Order extends BaseEntity {
     }
 
     public enum PaymentMethod {
-        CREDIT_CARD, PAYPAL, BANK_TRANSFER, CRYPTO
+        CREDIT_CARD, PAYPAL, BANK_TRANSFER, CRYPTO,
+        // Admin cấp quyền học (đơn 0đ), không phải một khoản thanh toán
+        ADMIN_GRANT
     }
 
     public enum PaymentStatus {
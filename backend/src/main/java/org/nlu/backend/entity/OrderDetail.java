@@ -17,7 +17,10 @@ import java.math.BigDecimal;
 @EqualsAndHashCode(exclude = {"order"})
 public class OrderDetail {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_detail_id")
+    @TableGenerator(name = "order_detail_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "order_details",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,88 @@
+package org.nlu.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Giao dịch ngân hàng đã nhận qua webhook SePay, khóa chính là id giao dịch phía SePay.
+ * <p>
+ * Mỗi giao dịch chỉ được ghi một lần: SePay gửi lại (retry) cùng id sẽ đụng khóa chính
+ * và nhận lại kết quả đã lưu thay vì tạo thêm order/enrollment.
+ * <p>
+ * Bảng này đồng thời là hàng đợi (inbox): webhook chỉ ghi giao dịch ở trạng thái RECEIVED rồi trả lời ngay,
+ * {@code PaymentInboxWorker} lấy các dòng đến hạn ({@code status}, {@code next_attempt_at}) ra xử lý.
+ */
+@Entity
+@Table(name = "payment_transactions", indexes = {
+        @Index(name = "idx_payment_transactions_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ToString(exclude = {"order"})
+public class PaymentTransaction extends BaseEntity implements Persistable<Long> {
+    @Id
+    Long id; // ID giao dịch trên SePay, không tự sinh
+
+    @Column(columnDefinition = "TEXT")
+    String content;
+
+    @Column(name = "transfer_amount", precision = 15, scale = 2)
+    BigDecimal transferAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    Status status = Status.RECEIVED;
+
+    // Số lần đã thử xử lý
+    @Column(nullable = false)
+    int attempts;
+
+    // Thời điểm được lấy ra xử lý tiếp theo; khi PROCESSING là hạn giữ dòng của worker đang xử lý
+    @Column(name = "next_attempt_at")
+    LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    String lastError;
+
+    @Column(name = "processed_at")
+    LocalDateTime processedAt;
+
+    // Kết quả xử lý: true nếu đã tạo order và ghi danh
+    @Column(nullable = false)
+    boolean success;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id")
+    Order order;
+
+    // Id được gán sẵn nên phải tự báo cho Spring Data biết đây là bản ghi mới, để save() luôn INSERT
+    // (và đụng khóa chính khi trùng) thay vì merge đè lên giao dịch đã có
+    @Transient
+    @Builder.Default
+    boolean isNew = true;
+
+    public enum Status {
+        RECEIVED, PROCESSING, RETRY, PROCESSED, DEAD
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+}
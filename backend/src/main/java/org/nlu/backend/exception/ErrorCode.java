@@ -35,6 +35,13 @@ public enum ErrorCode {
     LESSON_NOT_FOUND(1022, "Lesson not found", HttpStatus.NOT_FOUND),
     INVALID_LESSON_ORDER(1023, "Invalid lesson order", HttpStatus.BAD_REQUEST),
     ORDER_NOT_FOUND(1024, "Order not found", HttpStatus.NOT_FOUND),
+    INVALID_CURSOR(1025, "Invalid page cursor", HttpStatus.BAD_REQUEST),
+    INVALID_SORT_OPTION(1026, "Invalid sort option", HttpStatus.BAD_REQUEST),
+    IMPORT_TOO_LARGE(1027, "Too many courses in one import", HttpStatus.BAD_REQUEST),
+    TOO_MANY_SUBSCRIPTIONS(1028, "Too many payment status subscriptions", HttpStatus.SERVICE_UNAVAILABLE),
+    NOT_ENROLLED(1029, "User is not enrolled in this course", HttpStatus.FORBIDDEN),
+    TOO_MANY_COURSE_IDS(1030, "Too many course ids in one request", HttpStatus.BAD_REQUEST),
+    GRANT_TOO_LARGE(1031, "Too many enrollment grants in one request", HttpStatus.BAD_REQUEST),
     ;
 
     private int code;
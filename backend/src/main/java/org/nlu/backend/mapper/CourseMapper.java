@@ -1,10 +1,12 @@
 package org.nlu.backend.mapper;
 
+import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.Named;
 import org.nlu.backend.dto.request.course.CourseCreationRequest;
+import org.nlu.backend.dto.request.course.CourseImportRequest;
 import org.nlu.backend.dto.request.course.CourseStatusUpdateRequest;
 import org.nlu.backend.dto.request.course.CourseUpdateRequest;
 import org.nlu.backend.dto.response.admin.AdminCourseResponse;
@@ -25,6 +27,13 @@ public interface CourseMapper {
     @Mapping(source = "thumbnailUrl", target = "thumbnailUrl")
     Course toCourse(CourseCreationRequest request);
 
+    // BULK IMPORT (lessons are attached by the service so they get ordering keys)
+    @Mapping(source = "categoryId", target = "category.id")
+    @Mapping(source = "levelId", target = "level.id")
+    @Mapping(target = "status", constant = "DRAFT")
+    @Mapping(target = "lessons", ignore = true)
+    Course toCourse(CourseImportRequest request);
+
     // UPDATE
     void updateCourseFromRequest(CourseUpdateRequest request, @MappingTarget Course course);
 
@@ -40,6 +49,17 @@ public interface CourseMapper {
     @Mapping(source = "thumbnailUrl", target = "thumbnailUrl")
     CourseResponse toCourseResponse(Course course);
 
+    // lesson_order được lưu dạng khóa thưa, trả về vị trí 1, 2, 3... theo thứ tự đã sắp xếp
+    @AfterMapping
+    default void numberLessons(@MappingTarget CourseResponse response) {
+        if (response.getLessons() == null) {
+            return;
+        }
+        for (int i = 0; i < response.getLessons().size(); i++) {
+            response.getLessons().get(i).setOrder(i + 1);
+        }
+    }
+
 
 
     // ENTITY → SUMMARY RESPONSE
@@ -1,15 +1,65 @@
 package org.nlu.backend.repository;
 
+import org.nlu.backend.dto.response.course.EnrolledCourseResponse;
 import org.nlu.backend.entity.CourseEnrollment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CourseEnrollmentRepository extends JpaRepository<CourseEnrollment, Long> {
+    String ENROLLED_COURSE_SELECT = "SELECT new org.nlu.backend.dto.response.course.EnrolledCourseResponse(" +
+            "c.id, c.title, c.description, c.thumbnailUrl, c.price, s.fullName, e.createdAt, " +
+            "e.completedLessons, c.lessonCount, c.status) " +
+            "FROM CourseEnrollment e JOIN e.course c JOIN c.seller s ";
+
     List<CourseEnrollment> findByUserId(Long userId);
     boolean existsByUserIdAndCourseId(Long userId, Long courseId);
     Optional<CourseEnrollment> findByUserIdAndCourseId(Long userId, Long courseId);
+
+    // Chỉ đọc index (user_id, course_id), không nạp entity
+    @Query("SELECT e.course.id FROM CourseEnrollment e WHERE e.user.id = :userId")
+    List<Long> findCourseIdsByUserId(@Param("userId") Long userId);
+
+    // Các cặp (userId, courseId) đã ghi danh trong một lô cấp quyền; kết quả là tập con của tích hai danh sách
+    @Query("SELECT e.user.id, e.course.id FROM CourseEnrollment e " +
+            "WHERE e.user.id IN :userIds AND e.course.id IN :courseIds")
+    List<Object[]> findEnrolledPairs(@Param("userIds") Collection<Long> userIds,
+                                     @Param("courseIds") Collection<Long> courseIds);
+
+    // Một câu truy vấn cho cả trang, theo index (user_id, created_at, course_id); mới ghi danh trước
+    @Query(ENROLLED_COURSE_SELECT + "WHERE e.user.id = :userId ORDER BY e.createdAt DESC, c.id DESC")
+    List<EnrolledCourseResponse> findEnrolledCourses(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(ENROLLED_COURSE_SELECT + "WHERE e.user.id = :userId " +
+            "AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND c.id < :courseId)) " +
+            "ORDER BY e.createdAt DESC, c.id DESC")
+    List<EnrolledCourseResponse> findEnrolledCoursesAfter(@Param("userId") Long userId,
+                                                          @Param("createdAt") LocalDateTime createdAt,
+                                                          @Param("courseId") Long courseId,
+                                                          Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CourseEnrollment e SET e.completedLessons = " +
+            "(SELECT COUNT(p) FROM LessonProgress p WHERE p.userId = e.user.id AND p.courseId = e.course.id " +
+            "AND p.completedAt IS NOT NULL) " +
+            "WHERE e.completedLessons IS NULL")
+    int backfillCompletedLessons();
+
+    // Gọi trước khi xóa tiến độ của một bài học bị xóa
+    @Modifying
+    @Query("UPDATE CourseEnrollment e SET e.completedLessons = e.completedLessons - 1 " +
+            "WHERE e.course.id = :courseId AND e.user.id IN " +
+            "(SELECT p.userId FROM LessonProgress p WHERE p.lessonId = :lessonId AND p.completedAt IS NOT NULL)")
+    int decrementCompletedLessons(@Param("courseId") Long courseId, @Param("lessonId") Long lessonId);
 }
@@ -2,12 +2,89 @@ package org.nlu.backend.repository;
 
 import org.nlu.backend.entity.Course;
 import org.nlu.backend.entity.User;
+import org.nlu.backend.service.search.CourseSearchDocument;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecificationExecutor<Course> {
+public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecificationExecutor<Course>,
+        CourseRepositoryCustom {
     List<Course> findBySeller(User seller);
+
+    @Query("SELECT new org.nlu.backend.service.search.CourseSearchDocument(c.id, c.title, c.description, cat.name, l.name) " +
+            "FROM Course c LEFT JOIN c.category cat LEFT JOIN c.level l " +
+            "WHERE c.id > :afterId ORDER BY c.id")
+    List<CourseSearchDocument> findSearchDocuments(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new org.nlu.backend.service.search.CourseSearchDocument(c.id, c.title, c.description, cat.name, l.name) " +
+            "FROM Course c LEFT JOIN c.category cat LEFT JOIN c.level l " +
+            "WHERE c.id = :id")
+    Optional<CourseSearchDocument> findSearchDocumentById(@Param("id") Long id);
+
+    @Query("SELECT new org.nlu.backend.service.search.CourseSearchDocument(c.id, c.title, c.description, cat.name, l.name) " +
+            "FROM Course c LEFT JOIN c.category cat LEFT JOIN c.level l " +
+            "WHERE c.id IN :ids")
+    List<CourseSearchDocument> findSearchDocumentsByIds(@Param("ids") Collection<Long> ids);
+
+    // Khóa học được tạo/sửa từ thời điểm since; chỉ mục tìm kiếm làm mới theo delta thay vì dựng lại toàn bộ
+    @Query("SELECT c.id FROM Course c WHERE c.updatedAt >= :since")
+    List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
+
+    // Id nào trong danh sách còn tồn tại; kiểm tra cả lô cấp quyền bằng một truy vấn
+    @Query("SELECT c.id FROM Course c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Điền effective_price cho các dòng có từ trước khi thêm cột
+    @Modifying
+    @Transactional
+    @Query("UPDATE Course c SET c.effectivePrice = " +
+            "CASE WHEN c.discountPrice IS NOT NULL AND c.discountPrice < c.price THEN c.discountPrice ELSE c.price END " +
+            "WHERE c.effectivePrice IS NULL")
+    int backfillEffectivePrice();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Course c SET c.averageRating = " +
+            "COALESCE((SELECT AVG(r.rating) FROM CourseReview r WHERE r.course.id = c.id), 0.0) " +
+            "WHERE c.averageRating IS NULL")
+    int backfillAverageRating();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Course c SET c.enrollmentCount = " +
+            "(SELECT COUNT(e) FROM CourseEnrollment e WHERE e.course.id = c.id) " +
+            "WHERE c.enrollmentCount IS NULL")
+    int backfillEnrollmentCount();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Course c SET c.averageRating = " +
+            "COALESCE((SELECT AVG(r.rating) FROM CourseReview r WHERE r.course.id = :courseId), 0.0) " +
+            "WHERE c.id = :courseId")
+    int refreshAverageRating(@Param("courseId") Long courseId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Course c SET c.viewCount = 0 WHERE c.viewCount IS NULL")
+    int backfillViewCount();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Course c SET c.lessonCount = " +
+            "(SELECT COUNT(l) FROM Lesson l WHERE l.course.id = c.id) " +
+            "WHERE c.lessonCount IS NULL")
+    int backfillLessonCount();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Course c SET c.lessonCount = c.lessonCount + :delta WHERE c.id = :courseId")
+    int addLessonCount(@Param("courseId") Long courseId, @Param("delta") int delta);
 }
@@ -0,0 +1,22 @@
+package org.nlu.backend.repository;
+
+import org.nlu.backend.dto.response.course.CourseSummaryResponse;
+import org.nlu.backend.entity.Course;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface CourseRepositoryCustom {
+    /**
+     * Build CourseSummaryResponse rows in a single SELECT (course JOIN level, seller, category)
+     * instead of loading Course entities and touching their lazy associations.
+     * @param spec Filter (and optional ordering) applied to the course root, may be null
+     * @param limit Maximum number of rows, null for no limit
+     */
+    List<CourseSummaryResponse> findSummaries(Specification<Course> spec, Integer limit);
+
+    /**
+     * Select only the ids of the courses matching spec, without joining level, seller or category.
+     */
+    List<Long> findIds(Specification<Course> spec);
+}
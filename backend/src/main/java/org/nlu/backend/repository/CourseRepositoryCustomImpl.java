@@ -0,0 +1,74 @@
+package org.nlu.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.nlu.backend.dto.response.course.CourseSummaryResponse;
+import org.nlu.backend.entity.Category;
+import org.nlu.backend.entity.Course;
+import org.nlu.backend.entity.Level;
+import org.nlu.backend.entity.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class CourseRepositoryCustomImpl implements CourseRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<CourseSummaryResponse> findSummaries(Specification<Course> spec, Integer limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CourseSummaryResponse> query = cb.createQuery(CourseSummaryResponse.class);
+        Root<Course> root = query.from(Course.class);
+        Join<Course, Level> level = root.join("level", JoinType.LEFT);
+        Join<Course, User> seller = root.join("seller", JoinType.INNER);
+        Join<Course, Category> category = root.join("category", JoinType.LEFT);
+
+        query.select(cb.construct(CourseSummaryResponse.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("price"),
+                root.get("discountPrice"),
+                root.get("thumbnailUrl"),
+                level.get("name"),
+                seller.get("fullName"),
+                category.get("name"),
+                root.get("status"),
+                root.get("createdAt"),
+                root.get("effectivePrice"),
+                root.get("averageRating"),
+                root.get("enrollmentCount"),
+                root.get("viewCount")));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+
+        TypedQuery<CourseSummaryResponse> typedQuery = entityManager.createQuery(query);
+        if (limit != null) {
+            typedQuery.setMaxResults(limit);
+        }
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public List<Long> findIds(Specification<Course> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Course> root = query.from(Course.class);
+        query.select(root.get("id"));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+}
@@ -1,9 +1,28 @@
 package org.nlu.backend.repository;
 
 import org.nlu.backend.entity.InvalidatedToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
+import java.util.List;
+
 @Repository
 public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {
+
+    List<InvalidatedToken> findByExpiryTimeAfter(Date now);
+
+    List<InvalidatedToken> findByCreatedAtAfter(Date since);
+
+    // Đi theo index expiry_time nên mỗi lô chỉ đọc đúng các dòng cần xóa
+    @Query("SELECT t.id FROM InvalidatedToken t WHERE t.expiryTime < :now ORDER BY t.expiryTime")
+    List<String> findExpiredIds(@Param("now") Date now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM InvalidatedToken t WHERE t.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<String> ids);
 }
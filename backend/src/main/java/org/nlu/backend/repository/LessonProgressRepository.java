@@ -0,0 +1,16 @@
+package org.nlu.backend.repository;
+
+import org.nlu.backend.entity.LessonProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LessonProgressRepository extends JpaRepository<LessonProgress, LessonProgress.Key> {
+
+    @Modifying
+    @Query("DELETE FROM LessonProgress p WHERE p.lessonId = :lessonId")
+    int deleteByLessonId(@Param("lessonId") Long lessonId);
+}
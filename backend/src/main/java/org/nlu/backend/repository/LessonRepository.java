@@ -1,9 +1,43 @@
 package org.nlu.backend.repository;
 
+import org.nlu.backend.dto.response.lesson.LessonSummaryResponse;
 import org.nlu.backend.entity.Lesson;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface LessonRepository extends JpaRepository<Lesson, Long> {
-} 
\ No newline at end of file
+public interface LessonRepository extends JpaRepository<Lesson, Long>, LessonRepositoryCustom {
+    // Quét theo index (course_id, lesson_order), không đọc cột TEXT description
+    @Query("SELECT new org.nlu.backend.dto.response.lesson.LessonSummaryResponse(l.id, l.title, l.order, l.isPreview) " +
+            "FROM Lesson l WHERE l.course.id = :courseId ORDER BY l.order, l.id")
+    List<LessonSummaryResponse> findSummariesByCourseId(@Param("courseId") Long courseId);
+
+    @Query("SELECT l FROM Lesson l JOIN FETCH l.course c WHERE l.id = :lessonId AND c.id = :courseId")
+    Optional<Lesson> findByIdAndCourseId(@Param("lessonId") Long lessonId, @Param("courseId") Long courseId);
+
+    @Query("SELECT l.course.id FROM Lesson l WHERE l.id = :lessonId")
+    Optional<Long> findCourseIdById(@Param("lessonId") Long lessonId);
+
+    @Query("SELECT COALESCE(MAX(l.order), 0) FROM Lesson l WHERE l.course.id = :courseId")
+    int findMaxOrderByCourseId(@Param("courseId") Long courseId);
+
+    // Chỉ đọc index (course_id, lesson_order), dùng để tìm khoảng trống khi chèn/di chuyển
+    @Query("SELECT l.id FROM Lesson l WHERE l.course.id = :courseId ORDER BY l.order, l.id")
+    List<Long> findIdsByCourseIdOrdered(@Param("courseId") Long courseId);
+
+    @Query("SELECT l.order FROM Lesson l WHERE l.course.id = :courseId ORDER BY l.order, l.id")
+    List<Integer> findOrdersByCourseId(@Param("courseId") Long courseId);
+
+    @Query("SELECT l.order FROM Lesson l WHERE l.course.id = :courseId AND l.id <> :excludedId ORDER BY l.order, l.id")
+    List<Integer> findOrdersByCourseIdExcluding(@Param("courseId") Long courseId, @Param("excludedId") Long excludedId);
+
+    // Vị trí (bắt đầu từ 0) của bài học trong khóa học
+    @Query("SELECT COUNT(l) FROM Lesson l WHERE l.course.id = :courseId " +
+            "AND (l.order < :order OR (l.order = :order AND l.id < :lessonId))")
+    long countPreceding(@Param("courseId") Long courseId, @Param("order") Integer order, @Param("lessonId") Long lessonId);
+}
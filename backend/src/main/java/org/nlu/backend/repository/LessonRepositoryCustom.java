@@ -0,0 +1,13 @@
+package org.nlu.backend.repository;
+
+import java.util.List;
+
+public interface LessonRepositoryCustom {
+    /**
+     * Set lesson_order of many lessons of one course with a single UPDATE ... CASE statement
+     * (split into chunks only for very large courses).
+     * @param lessonIds Lesson IDs, all belonging to the course
+     * @param orders New lesson_order values, same size and position as lessonIds
+     */
+    void updateOrders(Long courseId, List<Long> lessonIds, List<Integer> orders);
+}
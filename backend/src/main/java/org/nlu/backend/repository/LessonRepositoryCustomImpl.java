@@ -0,0 +1,47 @@
+package org.nlu.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.List;
+
+public class LessonRepositoryCustomImpl implements LessonRepositoryCustom {
+    // Mỗi dòng dùng 3 tham số, giữ dưới giới hạn placeholder của MySQL (65535)
+    static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void updateOrders(Long courseId, List<Long> lessonIds, List<Integer> orders) {
+        for (int from = 0; from < lessonIds.size(); from += MAX_ROWS_PER_STATEMENT) {
+            int to = Math.min(from + MAX_ROWS_PER_STATEMENT, lessonIds.size());
+            updateChunk(courseId, lessonIds.subList(from, to), orders.subList(from, to));
+        }
+    }
+
+    private void updateChunk(Long courseId, List<Long> lessonIds, List<Integer> orders) {
+        StringBuilder sql = new StringBuilder("UPDATE lessons SET lesson_order = CASE id");
+        for (int i = 0; i < lessonIds.size(); i++) {
+            sql.append(" WHEN ? THEN ?");
+        }
+        sql.append(" END WHERE course_id = ? AND id IN (");
+        for (int i = 0; i < lessonIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        int position = 1;
+        for (int i = 0; i < lessonIds.size(); i++) {
+            query.setParameter(position++, lessonIds.get(i));
+            query.setParameter(position++, orders.get(i));
+        }
+        query.setParameter(position++, courseId);
+        for (Long lessonId : lessonIds) {
+            query.setParameter(position++, lessonId);
+        }
+        query.executeUpdate();
+    }
+}
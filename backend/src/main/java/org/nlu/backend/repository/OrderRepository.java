@@ -1,7 +1,77 @@
 package org.nlu.backend.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.nlu.backend.entity.Order;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.nlu.backend.service.order.OrderDetailRow;
+import org.nlu.backend.service.payment.PendingOrderPayment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    // Lịch sử đơn hàng, mới nhất trước, theo index (user_id, created_at, id)
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findByUserIdAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT e.order FROM CourseEnrollment e WHERE e.user.id = :userId AND e.course.id = :courseId")
+    Optional<Order> findByEnrollment(@Param("userId") Long userId, @Param("courseId") Long courseId);
+
+    // Chi tiết của nhiều đơn trong một truy vấn; thông tin khóa học được đọc riêng qua projection của catalog
+    @Query("SELECT new org.nlu.backend.service.order.OrderDetailRow(d.order.id, d.id, d.course.id, d.price) " +
+            "FROM OrderDetail d WHERE d.order.id IN :orderIds ORDER BY d.id")
+    List<OrderDetailRow> findDetailRows(@Param("orderIds") Collection<Long> orderIds);
+
+    // Chỉ đơn tạo sau createdAfter: đơn sắp bị PendingOrderSweeper hủy không được dùng lại
+    @Query("SELECT DISTINCT o FROM Order o JOIN o.orderDetails d " +
+            "WHERE o.user.id = :userId AND d.course.id = :courseId " +
+            "AND o.status = org.nlu.backend.entity.Order.OrderStatus.PENDING AND o.createdAt > :createdAfter " +
+            "ORDER BY o.id DESC")
+    List<Order> findPendingByUserIdAndCourseId(@Param("userId") Long userId,
+                                               @Param("courseId") Long courseId,
+                                               @Param("createdAfter") LocalDateTime createdAfter);
+
+    // Đơn còn nhận thanh toán: đang chờ, hoặc đã bị sweeper hủy nhưng khoản chuyển đến muộn
+    @Query("SELECT new org.nlu.backend.service.payment.PendingOrderPayment(o.id, o.user.id, d.course.id, o.totalAmount) " +
+            "FROM Order o JOIN o.orderDetails d " +
+            "WHERE o.id = :orderId AND o.status IN (org.nlu.backend.entity.Order.OrderStatus.PENDING, " +
+            "org.nlu.backend.entity.Order.OrderStatus.CANCELLED)")
+    Optional<PendingOrderPayment> findPayableOrder(@Param("orderId") Long orderId);
+
+    // Chuyển trạng thái có điều kiện: chỉ một giao dịch thắng nếu hai khoản chuyển cùng trả một đơn.
+    // Đơn CANCELLED (hết hạn chờ) vẫn được chuyển sang COMPLETED để khách chuyển khoản muộn không mất tiền
+    @Modifying
+    @Query("UPDATE Order o SET o.status = org.nlu.backend.entity.Order.OrderStatus.COMPLETED, " +
+            "o.paymentStatus = org.nlu.backend.entity.Order.PaymentStatus.COMPLETED, " +
+            "o.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE o.id = :orderId AND o.status IN (org.nlu.backend.entity.Order.OrderStatus.PENDING, " +
+            "org.nlu.backend.entity.Order.OrderStatus.CANCELLED)")
+    int markPaid(@Param("orderId") Long orderId);
+
+    // Khóa các đơn cần hủy; SKIP LOCKED (lock timeout -2) để các instance khác lấy lô khác thay vì chờ
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o.id FROM Order o " +
+            "WHERE o.status = org.nlu.backend.entity.Order.OrderStatus.PENDING AND o.createdAt < :cutoff " +
+            "ORDER BY o.createdAt")
+    List<Long> lockExpiredPendingIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = org.nlu.backend.entity.Order.OrderStatus.CANCELLED, " +
+            "o.paymentStatus = org.nlu.backend.entity.Order.PaymentStatus.FAILED, " +
+            "o.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE o.id IN :ids AND o.status = org.nlu.backend.entity.Order.OrderStatus.PENDING")
+    int cancelPending(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,39 @@
+package org.nlu.backend.repository;
+
+import org.nlu.backend.entity.PaymentTransaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PaymentTransactionRepository extends JpaRepository<PaymentTransaction, Long> {
+
+    @Query("SELECT t.id FROM PaymentTransaction t " +
+            "WHERE t.status IN :statuses AND t.nextAttemptAt <= :now ORDER BY t.nextAttemptAt")
+    List<Long> findDueIds(@Param("statuses") Collection<PaymentTransaction.Status> statuses,
+                          @Param("now") LocalDateTime now, Pageable pageable);
+
+    // Giữ dòng cho một worker: chỉ thành công nếu dòng vẫn đến hạn, nên hai worker/instance không xử lý trùng
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentTransaction t SET t.status = org.nlu.backend.entity.PaymentTransaction.Status.PROCESSING, " +
+            "t.attempts = t.attempts + 1, t.nextAttemptAt = :leaseUntil " +
+            "WHERE t.id = :id AND t.status IN :statuses AND t.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("statuses") Collection<PaymentTransaction.Status> statuses,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    long countByStatusIn(Collection<PaymentTransaction.Status> statuses);
+
+    long countByStatus(PaymentTransaction.Status status);
+
+    @Query("SELECT MIN(t.createdAt) FROM PaymentTransaction t WHERE t.status IN :statuses")
+    LocalDateTime findOldestCreatedAt(@Param("statuses") Collection<PaymentTransaction.Status> statuses);
+}
@@ -11,6 +11,7 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.experimental.NonFinal;
+import org.nlu.backend.configuration.AuthenticatedUser;
 import org.nlu.backend.dto.request.auth.AuthenticationRequest;
 import org.nlu.backend.dto.request.auth.ForgotPasswordRequest;
 import org.nlu.backend.dto.request.auth.LogoutRequest;
@@ -25,6 +26,7 @@ import org.nlu.backend.exception.ErrorCode;
 import org.nlu.backend.mapper.UserMapper;
 import org.nlu.backend.repository.InvalidatedTokenRepository;
 import org.nlu.backend.repository.UserRepository;
+import org.nlu.backend.service.token.TokenRevocationRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -48,6 +50,7 @@ public class AuthenticationService {
     PasswordEncoder passwordEncoder;
     EmailService emailService;
     InvalidatedTokenRepository invalidatedTokenRepository;
+    TokenRevocationRegistry tokenRevocationRegistry;
     private final UserMapper userMapper;
 
     @NonFinal
@@ -87,8 +90,10 @@ public class AuthenticationService {
         InvalidatedToken invalidatedToken = InvalidatedToken.builder()
                 .id(jit)
                 .expiryTime(expiryDate)
+                .createdAt(new Date())
                 .build();
         invalidatedTokenRepository.save(invalidatedToken);
+        tokenRevocationRegistry.revoke(jit, expiryDate);
     }
 
 
@@ -122,6 +127,7 @@ public class AuthenticationService {
                         Instant.now().plus(VALID_DURATION, ChronoUnit.SECONDS).toEpochMilli()
                 ))
                 .jwtID(UUID.randomUUID().toString())
+                .claim(AuthenticatedUser.USER_ID_CLAIM, user.getId())
                 .claim("scope", buildScope(user))
                 .build();
 
@@ -3,6 +3,7 @@ package org.nlu.backend.service;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.nlu.backend.configuration.AuthenticatedUser;
 import org.nlu.backend.dto.request.UserCreationRequest;
 import org.nlu.backend.dto.request.user.UserUpdateRequest;
 import org.nlu.backend.dto.response.UserResponse;
@@ -14,7 +15,6 @@ import org.nlu.backend.mapper.UserMapper;
 import org.nlu.backend.repository.RoleRepository;
 import org.nlu.backend.repository.UserRepository;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -56,10 +56,7 @@ public class UserService {
     }
 
     public UserResponse updateUser(UserUpdateRequest request) {
-        var context = SecurityContextHolder.getContext();
-        String email = context.getAuthentication().getName();
-
-        User user = userRepository.findByEmail(email)
+        User user = userRepository.findById(AuthenticatedUser.current().userId())
                 .orElseThrow(() -> new AppException(ErrorCode.EMAIL_NOT_EXISTED));
 
         user.setFullName(request.getFullName());
@@ -70,9 +67,7 @@ public class UserService {
     }
 
     public UserResponse getProfile() {
-        var context = SecurityContextHolder.getContext();
-        String email = context.getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
+        User user = userRepository.findById(AuthenticatedUser.current().userId())
                 .orElseThrow(() -> new AppException(ErrorCode.EMAIL_NOT_EXISTED));
         return userMapper.toUserResponse(user);
     }
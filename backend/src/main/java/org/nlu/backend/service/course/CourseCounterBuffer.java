@@ -0,0 +1,158 @@
+package org.nlu.backend.service.course;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bộ đếm lượt ghi danh và lượt xem theo khóa học, cộng dồn trong bộ nhớ và ghi định kỳ vào
+ * {@code courses.enrollment_count} / {@code courses.view_count} bằng một lô UPDATE JDBC.
+ * <p>
+ * Mỗi khóa học có hai {@link LongAdder} (đã chia sọc theo luồng), nên khóa học đang hot không bị
+ * tranh chấp trên một biến đếm hay một dòng {@code courses} ở mỗi request. Catalog đọc các cột này
+ * qua projection, nên sắp xếp "phổ biến" không cần COUNT trên đường đi của request.
+ * <p>
+ * Giá trị trên DB trễ tối đa một chu kỳ flush; số chưa ghi của instance bị mất nếu tiến trình dừng đột ngột
+ * (khi tắt bình thường bộ đếm được flush). Lô ghi lỗi được cộng trả lại để thử ở lần sau.
+ */
+@Component
+@Slf4j
+public class CourseCounterBuffer {
+
+    static final int CHUNK_SIZE = 500;
+
+    // Dòng courses luôn tồn tại khi có lượt xem/ghi danh, nên "upsert" chỉ cần cộng vào cột
+    private static final String INCREMENT_SQL = "UPDATE courses " +
+            "SET enrollment_count = COALESCE(enrollment_count, 0) + ?, view_count = COALESCE(view_count, 0) + ? " +
+            "WHERE id = ?";
+
+    static final class Counts {
+        final LongAdder enrollments = new LongAdder();
+        final LongAdder views = new LongAdder();
+    }
+
+    record Delta(long courseId, long enrollments, long views) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    // Mỗi khóa học có một mục, giữ lại giữa các lần flush: bỏ mục đi có thể làm mất lượt của luồng đang cộng dở.
+    // Mục của khóa học đã bị xóa (UPDATE không khớp dòng nào) được dọn khi flush.
+    private final Map<Long, Counts> counters = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+
+    public CourseCounterBuffer(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        Gauge.builder("course.counters.tracked", counters, Map::size)
+                .description("Khóa học đang có bộ đếm trong bộ nhớ")
+                .register(meterRegistry);
+        this.flushedCounter = meterRegistry.counter("course.counters.flush.rows");
+        this.failedCounter = meterRegistry.counter("course.counters.flush.failed_rows");
+        this.flushTimer = Timer.builder("course.counters.flush.duration").register(meterRegistry);
+    }
+
+    public void recordView(Long courseId) {
+        if (courseId != null) {
+            counts(courseId).views.increment();
+        }
+    }
+
+    /**
+     * Đếm một lượt ghi danh khi transaction hiện tại commit, để enrollment bị rollback không được tính.
+     */
+    public void recordEnrollmentAfterCommit(Long courseId) {
+        if (courseId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counts(courseId).enrollments.increment();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counts(courseId).enrollments.increment();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${course.counters.flush-interval-ms:10000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushTimer.record(this::drainAndWrite);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    int drainAndWrite() {
+        // sumThenReset lấy từng ô bằng getAndSet: lượt cộng đồng thời rơi vào lần này hoặc lần sau, không mất
+        List<Delta> deltas = new ArrayList<>();
+        counters.forEach((courseId, counts) -> {
+            long enrollments = counts.enrollments.sumThenReset();
+            long views = counts.views.sumThenReset();
+            if (enrollments != 0 || views != 0) {
+                deltas.add(new Delta(courseId, enrollments, views));
+            }
+        });
+
+        int written = 0;
+        for (int from = 0; from < deltas.size(); from += CHUNK_SIZE) {
+            List<Delta> chunk = deltas.subList(from, Math.min(from + CHUNK_SIZE, deltas.size()));
+            try {
+                // Cả chunk là một lô JDBC nên kết quả chỉ có một mảng
+                int[] updated = jdbcTemplate.batchUpdate(INCREMENT_SQL, chunk, chunk.size(), (ps, delta) -> {
+                    ps.setLong(1, delta.enrollments());
+                    ps.setLong(2, delta.views());
+                    ps.setLong(3, delta.courseId());
+                })[0];
+                for (int i = 0; i < updated.length; i++) {
+                    // 0 dòng: khóa học đã bị xóa (SUCCESS_NO_INFO là số âm nên không bị tính)
+                    if (updated[i] == 0) {
+                        counters.remove(chunk.get(i).courseId());
+                    }
+                }
+                written += chunk.size();
+                flushedCounter.increment(chunk.size());
+            } catch (DataAccessException e) {
+                log.warn("Could not flush {} course counters, keeping them for the next run", chunk.size(), e);
+                failedCounter.increment(chunk.size());
+                for (Delta delta : chunk) {
+                    Counts counts = counts(delta.courseId());
+                    counts.enrollments.add(delta.enrollments());
+                    counts.views.add(delta.views());
+                }
+            }
+        }
+        return written;
+    }
+
+    private Counts counts(Long courseId) {
+        return counters.computeIfAbsent(courseId, key -> new Counts());
+    }
+}
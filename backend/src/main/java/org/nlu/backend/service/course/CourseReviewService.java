@@ -37,6 +37,7 @@ public class CourseReviewService {
         review.setComment(request.getComment());
 
         CourseReview saved = reviewRepo.save(review);
+        courseRepo.refreshAverageRating(course.getId());
         return mapToResponse(saved);
     }
 
@@ -1,79 +1,219 @@
 package org.nlu.backend.service.course;
 
-import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import lombok.*;
+import org.nlu.backend.configuration.AuthenticatedUser;
+import org.nlu.backend.configuration.CacheConfig;
 import org.nlu.backend.dto.request.course.*;
 import org.nlu.backend.dto.response.course.*;
+import org.nlu.backend.dto.request.lesson.LessonCreationRequest;
 import org.nlu.backend.entity.Course;
+import org.nlu.backend.entity.Lesson;
 import org.nlu.backend.entity.User;
 import org.nlu.backend.exception.AppException;
 import org.nlu.backend.exception.ErrorCode;
 import org.nlu.backend.mapper.CourseMapper;
+import org.nlu.backend.mapper.LessonMapper;
 import org.nlu.backend.repository.CourseRepository;
 import org.nlu.backend.repository.UserRepository;
+import org.nlu.backend.service.lesson.LessonService;
+import org.nlu.backend.service.search.CourseSearchIndex;
+import org.nlu.backend.service.support.KeysetCursor;
+import org.nlu.backend.service.support.KeysetPage;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class CourseService implements ICourseService {
     private final CourseRepository courseRepository;
     private final CourseMapper courseMapper;
+    private final LessonMapper lessonMapper;
     private final UserRepository userRepository;
+    private final CourseSearchIndex courseSearchIndex;
+    private final CourseCounterBuffer courseCounterBuffer;
+    private final EntityManager entityManager;
+
+    static final int MAX_SEARCH_RESULTS = 100;
+    static final int MAX_FILTER_KEYWORD_MATCHES = 1000;
+    static final int MAX_IMPORT_COURSES = 1000;
+    // Số khóa học ghi xuống DB mỗi lần flush; các INSERT được Hibernate gom theo hibernate.jdbc.batch_size
+    static final int IMPORT_FLUSH_SIZE = 100;
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.COURSE_LISTINGS, key = "'all'")
     public List<CourseSummaryResponse> getAllCourses() {
-        List<Course> courses = courseRepository.findAll();
-        return courseMapper.toCourseSummaryResponses(courses);
+        // Giữ API cũ (trả về danh sách) nhưng chỉ lấy trang đầu tiên để không tải toàn bộ bảng
+        return getCoursePage(null, KeysetPage.MAX_SIZE, false).getItems();
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.COURSE_LISTINGS, key = "{'page', #cursor, #size, #includeTotal}")
+    @Transactional(readOnly = true)
+    public CoursePageResponse getCoursePage(String cursor, Integer size, boolean includeTotal) {
+        return findCoursePage((root, query, cb) -> null, CourseSortOption.NEWEST, cursor, size, includeTotal);
+    }
+
+    // Keyset pagination: lọc theo filter, sắp xếp theo (cột của sort, id) và bắt đầu sau cursor
+    private CoursePageResponse findCoursePage(Specification<Course> filter, CourseSortOption sort,
+                                              String cursor, Integer size, boolean includeTotal) {
+        int pageSize = KeysetPage.sizeOf(size);
+        KeysetCursor after = KeysetCursor.parse(cursor);
+
+        // Lấy dư 1 bản ghi để biết còn trang sau hay không mà không cần COUNT
+        List<CourseSummaryResponse> courses = courseRepository.findSummaries(
+                filter.and(keysetAfter(sort, after)), pageSize + 1);
+
+        return toPage(courses, pageSize,
+                last -> new KeysetCursor(sort.cursorValueOf(last), last.getId()),
+                includeTotal ? courseRepository.count(filter) : null);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Specification<Course> keysetAfter(CourseSortOption sort, KeysetCursor after) {
+        return (root, query, cb) -> {
+            Path<Comparable> sortPath = root.get(sort.getAttribute());
+            Path<Long> idPath = root.get("id");
+            if (sort.isAscending()) {
+                query.orderBy(cb.asc(sortPath), cb.asc(idPath));
+            } else {
+                query.orderBy(cb.desc(sortPath), cb.desc(idPath));
+            }
+            if (after == null) {
+                return null;
+            }
+
+            Comparable value = sort.parseCursorValue(after.value());
+            if (sort.isAscending()) {
+                return cb.or(
+                        cb.greaterThan(sortPath, value),
+                        cb.and(cb.equal(sortPath, value), cb.greaterThan(idPath, after.id())));
+            }
+            return cb.or(
+                    cb.lessThan(sortPath, value),
+                    cb.and(cb.equal(sortPath, value), cb.lessThan(idPath, after.id())));
+        };
+    }
+
+    private CoursePageResponse toPage(List<CourseSummaryResponse> courses, int pageSize,
+                                      Function<CourseSummaryResponse, KeysetCursor> cursorOf, Long totalCount) {
+        KeysetPage<CourseSummaryResponse> page = KeysetPage.of(courses, pageSize, cursorOf);
+        return CoursePageResponse.builder()
+                .items(page.items())
+                .nextCursor(page.nextCursor())
+                .hasNext(page.hasNext())
+                .totalCount(totalCount)
+                .build();
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.COURSE_LISTINGS, allEntries = true)
     @PreAuthorize("hasAnyRole('ADMIN','SELLER')")
     public CourseResponse createCourse(CourseCreationRequest request) {
         Course course = courseMapper.toCourse(request);
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentSellerEmail = authentication.getName();
-        User seller = userRepository.findByEmail(currentSellerEmail)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND)); // Lỗi này có thể xảy ra nếu token không hợp lệ hoặc user đã bị xóa
+        // Response có thông tin seller nên vẫn đọc user, nhưng theo khóa chính
+        User seller = userRepository.findById(AuthenticatedUser.current().userId())
+                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND)); // Lỗi này có thể xảy ra nếu user đã bị xóa
         course.setSeller(seller);
 
         course = courseRepository.save(course);
+        courseSearchIndex.refresh(course.getId());
         return courseMapper.toCourseResponse(course);
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.COURSE_LISTINGS, allEntries = true)
+    @PreAuthorize("hasAnyRole('ADMIN','SELLER')")
+    public CourseImportResponse importCourses(List<CourseImportRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return CourseImportResponse.builder().courseIds(List.of()).build();
+        }
+        if (requests.size() > MAX_IMPORT_COURSES) {
+            throw new AppException(ErrorCode.IMPORT_TOO_LARGE);
+        }
+        User seller = userRepository.getReferenceById(AuthenticatedUser.current().userId());
+
+        List<Long> courseIds = new ArrayList<>(requests.size());
+        int lessonCount = 0;
+        for (int from = 0; from < requests.size(); from += IMPORT_FLUSH_SIZE) {
+            List<Course> batch = new ArrayList<>(IMPORT_FLUSH_SIZE);
+            for (CourseImportRequest request : requests.subList(from, Math.min(from + IMPORT_FLUSH_SIZE, requests.size()))) {
+                Course course = courseMapper.toCourse(request);
+                course.setSeller(seller);
+                course.setLessons(toImportedLessons(course, request.getLessons()));
+                lessonCount += course.getLessons().size();
+                batch.add(course);
+            }
+            // Id lấy từ bộ sinh theo lô nên INSERT course/lesson chỉ được gửi khi flush, theo từng batch JDBC
+            courseRepository.saveAll(batch);
+            courseRepository.flush();
+            batch.forEach(course -> courseIds.add(course.getId()));
+            // Batch đã ghi xong: bỏ khỏi persistence context để bộ nhớ và chi phí dirty-check không tăng theo số batch
+            entityManager.clear();
+        }
+
+        // Chỉ đưa vào chỉ mục khi import đã commit, rollback không để lại khóa học ma trong kết quả tìm kiếm
+        courseSearchIndex.refreshAfterCommit(courseIds);
+        return CourseImportResponse.builder()
+                .courseCount(courseIds.size())
+                .lessonCount(lessonCount)
+                .courseIds(courseIds)
+                .build();
+    }
+
+    private List<Lesson> toImportedLessons(Course course, List<LessonCreationRequest> requests) {
+        if (requests == null) {
+            return new ArrayList<>();
+        }
+        List<Lesson> lessons = new ArrayList<>(requests.size());
+        for (LessonCreationRequest request : requests) {
+            Lesson lesson = lessonMapper.toLesson(request);
+            lesson.setCourse(course);
+            // Bài học giữ thứ tự trong request, cách nhau ORDER_GAP như khi thêm từng bài
+            lesson.setOrder((lessons.size() + 1) * LessonService.ORDER_GAP);
+            lessons.add(lesson);
+        }
+        return lessons;
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSE_DETAIL, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.COURSE_LISTINGS, allEntries = true)
+    })
     @PreAuthorize("hasAnyRole('ADMIN','SELLER')")
     public CourseResponse updateCourse(Long id, CourseUpdateRequest request) {
         Course course = courseRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.COURSE_NOT_FOUND));
 
         // Kiểm tra quyền: ADMIN có thể sửa bất kỳ khóa học nào, SELLER chỉ sửa khóa học của mình
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication.getAuthorities().stream().noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+        AuthenticatedUser currentUser = AuthenticatedUser.current();
+        if (!currentUser.isAdmin()) {
             // Nếu không phải ADMIN, kiểm tra xem có phải là SELLER sở hữu khóa học không
-            String currentSellerEmail = authentication.getName();
-            User seller = userRepository.findByEmail(currentSellerEmail)
-                    .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
-
-            if (!course.getSeller().getId().equals(seller.getId())) {
+            if (!course.getSeller().getId().equals(currentUser.userId())) {
                 throw new AppException(ErrorCode.ACCESS_DENIED);
             }
         }
 
         courseMapper.updateCourseFromRequest(request, course);
         course = courseRepository.save(course);
+        courseSearchIndex.refresh(course.getId());
         return courseMapper.toCourseResponse(course);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.COURSE_DETAIL, key = "#id")
     @Transactional(readOnly = true)
     public CourseResponse getCourseById(Long id) {
         Course course = courseRepository.findById(id)
@@ -81,128 +221,113 @@ public class CourseService implements ICourseService {
         return courseMapper.toCourseResponse(course);
     }
 
+    // Gọi ngoài getCourseById: lượt đọc từ cache COURSE_DETAIL cũng phải được đếm
+    @Override
+    public void recordCourseView(Long id) {
+        courseCounterBuffer.recordView(id);
+    }
+
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSE_DETAIL, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.COURSE_LISTINGS, allEntries = true)
+    })
     @PreAuthorize("hasAnyRole('ADMIN','SELLER')")
     public void deleteCourse(Long id) {
         Course course = courseRepository.findById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.COURSE_NOT_FOUND));
 
         // Kiểm tra quyền: ADMIN có thể xóa bất kỳ khóa học nào, SELLER chỉ xóa khóa học của mình
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication.getAuthorities().stream().noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
-            String currentSellerEmail = authentication.getName();
-            User seller = userRepository.findByEmail(currentSellerEmail)
-                    .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
-
-            if (!course.getSeller().getId().equals(seller.getId())) {
+        AuthenticatedUser currentUser = AuthenticatedUser.current();
+        if (!currentUser.isAdmin()) {
+            if (!course.getSeller().getId().equals(currentUser.userId())) {
                 throw new AppException(ErrorCode.ACCESS_DENIED);
             }
         }
         courseRepository.delete(course); // Xóa entity để kiểm tra quyền sở hữu
+        courseSearchIndex.remove(id);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.COURSE_LISTINGS, key = "{'filter', #request}")
+    @Transactional(readOnly = true)
     public List<CourseSummaryResponse> filterCourses(CourseFilterRequest request) {
-        Specification<Course> spec = (root, query, cb) -> {
-            Predicate predicate = cb.conjunction(); // Start with a true predicate
-
-            if (request.getKeyword() != null && !request.getKeyword().isEmpty()) {
-                String keyword = "%" + request.getKeyword().toLowerCase() + "%";
-                predicate = cb.and(predicate, cb.or(
-                        cb.like(cb.lower(root.get("title")), keyword),
-                        cb.like(cb.lower(root.get("description")), keyword)
-                ));
-            }
-            if (request.getCategoryId() != null) {
-                predicate = cb.and(predicate, cb.equal(root.get("category").get("id"), request.getCategoryId()));
-            }
-            if (request.getLevelIds() != null && !request.getLevelIds().isEmpty()) {
-                predicate = cb.and(predicate, root.get("level").get("id").in(request.getLevelIds()));
-            }
-            if (request.getStatus() != null) {
-                predicate = cb.and(predicate, cb.equal(root.get("status"), Course.CourseStatus.valueOf(request.getStatus())));
-            }
+        // API cũ trả về toàn bộ danh sách: đọc lần lượt từng trang keyset (mỗi trang một truy vấn có LIMIT) đến hết
+        List<CourseSummaryResponse> courses = new ArrayList<>();
+        String cursor = null;
+        CoursePageResponse page;
+        do {
+            page = findFilteredPage(request, cursor, KeysetPage.MAX_SIZE);
+            courses.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (page.isHasNext());
+        return courses;
+    }
 
-            // --- Cập nhật logic lọc khoảng giá theo giá cuối cùng (discountPrice hoặc price) ---
-            if (request.getMinPrice() != null) {
-                Expression<BigDecimal> pricePath = root.get("price");
-                Expression<BigDecimal> discountPricePath = root.get("discountPrice");
-                BigDecimal minPriceValue = request.getMinPrice();
-
-                Predicate discountPriceGreaterThanOrEqualToMin = cb.and(
-                        cb.isNotNull(discountPricePath),
-                        cb.lessThan(discountPricePath, pricePath), // discountPrice < price
-                        cb.greaterThanOrEqualTo(discountPricePath, minPriceValue)
-                );
-
-                Predicate originalPriceGreaterThanOrEqualToMin = cb.and(
-                        cb.or(
-                                cb.isNull(discountPricePath), // No discount price
-                                cb.greaterThanOrEqualTo(discountPricePath, pricePath) // Discount price not less than original price
-                        ),
-                        cb.greaterThanOrEqualTo(pricePath, minPriceValue)
-                );
-                predicate = cb.and(predicate, cb.or(discountPriceGreaterThanOrEqualToMin, originalPriceGreaterThanOrEqualToMin));
-            }
+    @Override
+    @Cacheable(cacheNames = CacheConfig.COURSE_LISTINGS, key = "{'filterPage', #request}")
+    @Transactional(readOnly = true)
+    public CoursePageResponse filterCoursePage(CourseFilterRequest request) {
+        return findFilteredPage(request, request.getCursor(), request.getSize());
+    }
 
-            if (request.getMaxPrice() != null) {
-                Expression<BigDecimal> pricePath = root.get("price");
-                Expression<BigDecimal> discountPricePath = root.get("discountPrice");
-                BigDecimal maxPriceValue = request.getMaxPrice();
-
-                Predicate discountPriceLessThanOrEqualToMax = cb.and(
-                        cb.isNotNull(discountPricePath),
-                        cb.lessThan(discountPricePath, pricePath), // discountPrice < price
-                        cb.lessThanOrEqualTo(discountPricePath, maxPriceValue)
-                );
-
-                Predicate originalPriceLessThanOrEqualToMax = cb.and(
-                        cb.or(
-                                cb.isNull(discountPricePath), // No discount price
-                                cb.greaterThanOrEqualTo(discountPricePath, pricePath) // Discount price not less than original price
-                        ),
-                        cb.lessThanOrEqualTo(pricePath, maxPriceValue)
-                );
-                predicate = cb.and(predicate, cb.or(discountPriceLessThanOrEqualToMax, originalPriceLessThanOrEqualToMax));
-            }
-            // --- Kết thúc cập nhật logic lọc khoảng giá ---
+    private CoursePageResponse findFilteredPage(CourseFilterRequest request, String cursor, Integer size) {
+        CourseSortOption sort = CourseSortOption.from(request.getSortBy(), request.getSortDirection());
 
-            if (request.getSellerId() != null) {
-                predicate = cb.and(predicate, cb.equal(root.get("seller").get("id"), request.getSellerId()));
+        // Từ khóa được tra trong chỉ mục tìm kiếm, sau đó chỉ lọc theo danh sách ID đã khớp
+        List<Long> matchedIds = null;
+        if (request.getKeyword() != null && !request.getKeyword().isEmpty()) {
+            matchedIds = courseSearchIndex.search(request.getKeyword(), MAX_FILTER_KEYWORD_MATCHES);
+            if (matchedIds.isEmpty()) {
+                return toPage(List.of(), KeysetPage.sizeOf(size), null, request.isIncludeTotal() ? 0L : null);
             }
+        }
 
-            // Logic sắp xếp (đã có từ trước và vẫn dùng 'price' hoặc 'discountPrice' nếu được gửi từ frontend)
-            if (request.getSortBy() != null && request.getSortDirection() != null) {
-                if (request.getSortDirection().equalsIgnoreCase("asc")) {
-                    query.orderBy(cb.asc(root.get(request.getSortBy())));
-                } else if (request.getSortDirection().equalsIgnoreCase("desc")) {
-                    query.orderBy(cb.desc(root.get(request.getSortBy())));
-                }
-            }
+        Specification<Course> filter = buildCourseSpecification(request, matchedIds);
+        if (sort == null && matchedIds != null) {
+            return findRankedPage(filter, matchedIds, cursor, size, request.isIncludeTotal());
+        }
+        return findCoursePage(filter, sort != null ? sort : CourseSortOption.NEWEST,
+                cursor, size, request.isIncludeTotal());
+    }
 
-            query.where(predicate);
-            return query.getRestriction();
-        };
-        List<Course> courses = courseRepository.findAll(spec);
-        return courseMapper.toCourseSummaryResponses(courses);
+    // Sắp xếp theo độ liên quan: phân trang theo offset trên danh sách ID đã xếp hạng (tối đa MAX_FILTER_KEYWORD_MATCHES).
+    // Chỉ đọc ID để áp bộ lọc, sau đó nạp summary cho các ID của trang hiện tại
+    private CoursePageResponse findRankedPage(Specification<Course> filter, List<Long> rankedIds,
+                                              String cursor, Integer size, boolean includeTotal) {
+        int pageSize = KeysetPage.sizeOf(size);
+        Set<Long> matching = new HashSet<>(courseRepository.findIds(filter));
+        List<Long> ranked = rankedIds.stream().filter(matching::contains).toList();
+
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int offset = after == null ? 0 : after.intValue();
+        int from = Math.min(Math.max(offset, 0), ranked.size());
+        int to = Math.min(from + pageSize + 1, ranked.size());
+        int nextOffset = from + pageSize;
+
+        List<Long> pageIds = ranked.subList(from, to);
+        List<CourseSummaryResponse> courses = pageIds.isEmpty() ? List.of() : orderByRank(
+                courseRepository.findSummaries((root, query, cb) -> root.get("id").in(pageIds), null), pageIds);
+        return toPage(courses, pageSize,
+                last -> new KeysetCursor(String.valueOf(nextOffset), last.getId()),
+                includeTotal ? (long) ranked.size() : null);
     }
 
     @Override
     @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
     // Đã có @PreAuthorize ở Controller, nhưng giữ ở đây để bảo vệ service
     public List<CourseSummaryResponse> getCoursesByCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = authentication.getName(); // Email của người dùng hiện tại
-
-        User currentUser = userRepository.findByEmail(currentUserEmail)
-                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
-
         // Lấy tất cả khóa học mà người dùng này là seller
-        List<Course> courses = courseRepository.findBySeller(currentUser);
-        return courseMapper.toCourseSummaryResponses(courses);
+        Long sellerId = AuthenticatedUser.current().userId();
+        return courseRepository.findSummaries(
+                (root, query, cb) -> cb.equal(root.get("seller").get("id"), sellerId), null);
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSE_DETAIL, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.COURSE_LISTINGS, allEntries = true)
+    })
     @PreAuthorize("hasAnyRole('ADMIN','SELLER')")
     @Transactional
     public void updateCourseStatus(Long id, CourseStatusUpdateRequest request) {
@@ -210,18 +335,12 @@ public class CourseService implements ICourseService {
                 .orElseThrow(() -> new AppException(ErrorCode.COURSE_NOT_FOUND));
 
         // Kiểm tra quyền: ADMIN có thể thay đổi trạng thái bất kỳ, SELLER chỉ thay đổi của mình
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isAdmin = authentication.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-        if (!isAdmin) {
-            String currentSellerEmail = authentication.getName();
-            User seller = userRepository.findByEmail(currentSellerEmail)
-                    .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
-
+        AuthenticatedUser currentUser = AuthenticatedUser.current();
+        if (!currentUser.isAdmin()) {
             Course.CourseStatus currentStatus = course.getStatus(); // Lấy trạng thái hiện tại
             Course.CourseStatus requestedStatus = Course.CourseStatus.valueOf(String.valueOf(request.getStatus())); // Chuyển đổi trạng thái yêu cầu sang enum
 
-            if (!course.getSeller().getId().equals(seller.getId())) {
+            if (!course.getSeller().getId().equals(currentUser.userId())) {
                 throw new AppException(ErrorCode.ACCESS_DENIED);
             }
 
@@ -236,6 +355,10 @@ public class CourseService implements ICourseService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSE_DETAIL, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.COURSE_LISTINGS, allEntries = true)
+    })
     @PreAuthorize("hasRole('ADMIN')")
     @Transactional
     public void approveCourse(Long id) {
@@ -252,6 +375,10 @@ public class CourseService implements ICourseService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSE_DETAIL, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.COURSE_LISTINGS, allEntries = true)
+    })
     @PreAuthorize("hasRole('ADMIN')")
     @Transactional
     public void rejectCourse(Long id) {
@@ -268,31 +395,37 @@ public class CourseService implements ICourseService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.COURSE_LISTINGS, key = "{'search', #keyword}")
     public List<CourseSummaryResponse> searchCourses(String keyword) {
-        Specification<Course> spec = (root, query, cb) -> {
-            if (keyword == null || keyword.isEmpty()) {
-                return cb.conjunction(); // Return an empty predicate if no keyword
-            }
-            String likeKeyword = "%" + keyword.toLowerCase() + "%";
-            return cb.or(
-                    cb.like(cb.lower(root.get("title")), likeKeyword),
-                    cb.like(cb.lower(root.get("description")), likeKeyword)
-            );
-        };
-        List<Course> courses = courseRepository.findAll(spec);
-        return courseMapper.toCourseSummaryResponses(courses);
+        if (keyword == null || keyword.isBlank()) {
+            return getAllCourses();
+        }
+        List<Long> rankedIds = courseSearchIndex.search(keyword, MAX_SEARCH_RESULTS);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        // Nạp toàn bộ kết quả trong một truy vấn rồi sắp xếp lại theo thứ hạng BM25
+        List<CourseSummaryResponse> courses = courseRepository.findSummaries(
+                (root, query, cb) -> root.get("id").in(rankedIds), null);
+        return orderByRank(courses, rankedIds);
+    }
+
+    private List<CourseSummaryResponse> orderByRank(List<CourseSummaryResponse> courses, List<Long> rankedIds) {
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rank.put(rankedIds.get(i), i);
+        }
+        List<CourseSummaryResponse> ordered = new ArrayList<>(courses);
+        ordered.sort(Comparator.comparing(course -> rank.getOrDefault(course.getId(), Integer.MAX_VALUE)));
+        return ordered;
     }
 
-    private Specification<Course> buildCourseSpecification(CourseFilterRequest request) {
+    private Specification<Course> buildCourseSpecification(CourseFilterRequest request, List<Long> matchedIds) {
         return (root, query, cb) -> {
-            Predicate predicate = cb.conjunction();
-
-            if (request.getKeyword() != null && !request.getKeyword().isEmpty()) {
-                String keyword = "%" + request.getKeyword().toLowerCase() + "%";
-                predicate = cb.and(predicate, cb.or(
-                        cb.like(cb.lower(root.get("title")), keyword),
-                        cb.like(cb.lower(root.get("description")), keyword)
-                ));
+            Predicate predicate = cb.conjunction(); // Start with a true predicate
+
+            if (matchedIds != null) {
+                predicate = cb.and(predicate, root.get("id").in(matchedIds));
             }
             if (request.getCategoryId() != null) {
                 predicate = cb.and(predicate, cb.equal(root.get("category").get("id"), request.getCategoryId()));
@@ -301,18 +434,21 @@ public class CourseService implements ICourseService {
                 predicate = cb.and(predicate, root.get("level").get("id").in(request.getLevelIds()));
             }
             if (request.getStatus() != null) {
-                predicate = cb.and(predicate, cb.equal(root.get("status"), request.getStatus()));
+                predicate = cb.and(predicate, cb.equal(root.get("status"), Course.CourseStatus.valueOf(request.getStatus())));
             }
+
+            // Lọc khoảng giá trên cột effective_price (giá cuối cùng) để dùng được index
+            // (status, category_id, effective_price) / (status, level_id, effective_price)
             if (request.getMinPrice() != null) {
-                predicate = cb.and(predicate, cb.greaterThanOrEqualTo(root.get("price"), request.getMinPrice()));
+                predicate = cb.and(predicate, cb.greaterThanOrEqualTo(root.get("effectivePrice"), request.getMinPrice()));
             }
             if (request.getMaxPrice() != null) {
-                predicate = cb.and(predicate, cb.lessThanOrEqualTo(root.get("price"), request.getMaxPrice()));
+                predicate = cb.and(predicate, cb.lessThanOrEqualTo(root.get("effectivePrice"), request.getMaxPrice()));
             }
+
             if (request.getSellerId() != null) {
                 predicate = cb.and(predicate, cb.equal(root.get("seller").get("id"), request.getSellerId()));
             }
-            // Có thể bổ sung sortBy, sortDirection nếu cần
 
             return predicate;
         };
@@ -8,16 +8,24 @@ import org.nlu.backend.dto.response.course.*;
 public interface ICourseService {
     List<CourseSummaryResponse> getAllCourses();
 
+    CoursePageResponse getCoursePage(String cursor, Integer size, boolean includeTotal);
+
     CourseResponse createCourse(CourseCreationRequest request);
 
+    CourseImportResponse importCourses(List<CourseImportRequest> requests);
+
     CourseResponse updateCourse(Long id, CourseUpdateRequest request);
 
     void updateCourseStatus(Long id, CourseStatusUpdateRequest request);
 
     CourseResponse getCourseById(Long id);
 
+    void recordCourseView(Long id);
+
     List<CourseSummaryResponse> filterCourses(CourseFilterRequest request);
 
+    CoursePageResponse filterCoursePage(CourseFilterRequest request);
+
     void deleteCourse(Long id);
 
     List<CourseSummaryResponse> getCoursesByCurrentUser();
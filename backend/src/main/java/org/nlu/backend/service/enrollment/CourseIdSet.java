@@ -0,0 +1,62 @@
+package org.nlu.backend.service.enrollment;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Tập id khóa học bất biến, lưu dưới dạng mảng {@code long[]} đã sắp xếp: 8 byte mỗi phần tử,
+ * không boxing, kiểm tra bằng tìm kiếm nhị phân.
+ * <p>
+ * Ghi danh mới tạo ra một bản sao có thêm phần tử ({@link #with}); số khóa học của một người thường
+ * nhỏ nên sao chép rẻ hơn giữ một cấu trúc có khóa.
+ */
+final class CourseIdSet {
+
+    static final CourseIdSet EMPTY = new CourseIdSet(new long[0]);
+
+    private final long[] ids;
+
+    private CourseIdSet(long[] ids) {
+        this.ids = ids;
+    }
+
+    static CourseIdSet of(Collection<Long> courseIds) {
+        long[] ids = new long[courseIds.size()];
+        int size = 0;
+        for (Long id : courseIds) {
+            if (id != null) {
+                ids[size++] = id;
+            }
+        }
+        Arrays.sort(ids, 0, size);
+        // Bỏ trùng sau khi sắp xếp
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return distinct == 0 ? EMPTY : new CourseIdSet(distinct == ids.length ? ids : Arrays.copyOf(ids, distinct));
+    }
+
+    boolean contains(long courseId) {
+        return Arrays.binarySearch(ids, courseId) >= 0;
+    }
+
+    CourseIdSet with(long courseId) {
+        int index = Arrays.binarySearch(ids, courseId);
+        if (index >= 0) {
+            return this;
+        }
+        int insertAt = -index - 1;
+        long[] copy = new long[ids.length + 1];
+        System.arraycopy(ids, 0, copy, 0, insertAt);
+        copy[insertAt] = courseId;
+        System.arraycopy(ids, insertAt, copy, insertAt + 1, ids.length - insertAt);
+        return new CourseIdSet(copy);
+    }
+
+    int size() {
+        return ids.length;
+    }
+}
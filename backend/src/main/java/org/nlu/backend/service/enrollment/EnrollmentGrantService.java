@@ -0,0 +1,218 @@
+package org.nlu.backend.service.enrollment;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.nlu.backend.dto.request.enrollment.EnrollmentGrantRequest;
+import org.nlu.backend.dto.response.enrollment.EnrollmentGrantResult;
+import org.nlu.backend.dto.response.enrollment.EnrollmentGrantResult.Status;
+import org.nlu.backend.entity.Course;
+import org.nlu.backend.entity.CourseEnrollment;
+import org.nlu.backend.entity.Order;
+import org.nlu.backend.entity.OrderDetail;
+import org.nlu.backend.exception.AppException;
+import org.nlu.backend.exception.ErrorCode;
+import org.nlu.backend.repository.CourseEnrollmentRepository;
+import org.nlu.backend.repository.CourseRepository;
+import org.nlu.backend.repository.OrderRepository;
+import org.nlu.backend.repository.UserRepository;
+import org.nlu.backend.service.course.CourseCounterBuffer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Cấp quyền học hàng loạt cho admin (ví dụ ghi danh cả một lớp doanh nghiệp).
+ * <p>
+ * Request được xử lý theo lô {@link #CHUNK_SIZE} dòng, mỗi lô một transaction: ba truy vấn tập hợp
+ * (user tồn tại, khóa học tồn tại, cặp đã ghi danh) rồi INSERT order và enrollment theo batch JDBC
+ * (id lấy từ bộ sinh theo lô, xem {@code JpaConfig}). Số câu lệnh mỗi lô không phụ thuộc số dòng.
+ * Mỗi cấp quyền tạo một đơn 0đ đã hoàn tất (phương thức {@code ADMIN_GRANT}) kèm chi tiết đơn cho khóa học,
+ * để lịch sử đơn hiển thị được khóa học và báo cáo thanh toán không tính nhầm là chuyển khoản.
+ */
+@Service
+@Slf4j
+public class EnrollmentGrantService implements IEnrollmentGrantService {
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_GRANTS = 100_000;
+    // Lô bị từ chối vì ràng buộc unique (ghi danh đồng thời) được kiểm tra lại và thử lại
+    static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private record Pair(long userId, long courseId) {
+    }
+
+    private final UserRepository userRepository;
+    private final CourseRepository courseRepository;
+    private final OrderRepository orderRepository;
+    private final CourseEnrollmentRepository enrollmentRepository;
+    private final EntitlementCache entitlementCache;
+    private final CourseCounterBuffer courseCounterBuffer;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    public EnrollmentGrantService(UserRepository userRepository,
+                                  CourseRepository courseRepository,
+                                  OrderRepository orderRepository,
+                                  CourseEnrollmentRepository enrollmentRepository,
+                                  EntitlementCache entitlementCache,
+                                  CourseCounterBuffer courseCounterBuffer,
+                                  TransactionTemplate transactionTemplate,
+                                  EntityManager entityManager) {
+        this.userRepository = userRepository;
+        this.courseRepository = courseRepository;
+        this.orderRepository = orderRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.entitlementCache = entitlementCache;
+        this.courseCounterBuffer = courseCounterBuffer;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void validateGrants(List<EnrollmentGrantRequest> grants) {
+        if (grants == null) {
+            throw new AppException(ErrorCode.INVALID_KEY);
+        }
+        if (grants.size() > MAX_GRANTS) {
+            throw new AppException(ErrorCode.GRANT_TOO_LARGE);
+        }
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    public void grantEnrollments(List<EnrollmentGrantRequest> grants, Consumer<EnrollmentGrantResult> report) {
+        validateGrants(grants);
+
+        Set<Pair> seen = new HashSet<>(grants.size() * 2);
+        for (int from = 0; from < grants.size(); from += CHUNK_SIZE) {
+            int to = Math.min(from + CHUNK_SIZE, grants.size());
+            EnrollmentGrantResult[] results = new EnrollmentGrantResult[to - from];
+            Map<Integer, Pair> candidates = new LinkedHashMap<>();
+            for (int row = from; row < to; row++) {
+                EnrollmentGrantRequest grant = grants.get(row);
+                if (grant == null || grant.getUserId() == null || grant.getCourseId() == null) {
+                    results[row - from] = result(row, grant, Status.INVALID);
+                    continue;
+                }
+                Pair pair = new Pair(grant.getUserId(), grant.getCourseId());
+                if (!seen.add(pair)) {
+                    results[row - from] = result(row, grant, Status.DUPLICATE);
+                    continue;
+                }
+                candidates.put(row, pair);
+            }
+
+            List<Pair> granted = grantChunk(candidates, results, from);
+            for (Pair pair : granted) {
+                entitlementCache.grantAfterCommit(pair.userId(), pair.courseId());
+                courseCounterBuffer.recordEnrollmentAfterCommit(pair.courseId());
+            }
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    results[i] = result(from + i, grants.get(from + i), Status.FAILED);
+                }
+                report.accept(results[i]);
+            }
+        }
+    }
+
+    private List<Pair> grantChunk(Map<Integer, Pair> candidates, EnrollmentGrantResult[] results, int offset) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        for (int attempt = 1; attempt <= MAX_CHUNK_ATTEMPTS; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> writeChunk(candidates, results, offset));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Enrollment grant chunk at row {} conflicted with a concurrent enrollment (attempt {})",
+                        offset, attempt);
+            }
+        }
+        // Các dòng chưa có kết quả sẽ được báo FAILED
+        candidates.keySet().forEach(row -> results[row - offset] = null);
+        return List.of();
+    }
+
+    private List<Pair> writeChunk(Map<Integer, Pair> candidates, EnrollmentGrantResult[] results, int offset) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> courseIds = new HashSet<>();
+        for (Pair pair : candidates.values()) {
+            userIds.add(pair.userId());
+            courseIds.add(pair.courseId());
+        }
+        Set<Long> existingUsers = new HashSet<>(userRepository.findExistingIds(userIds));
+        Set<Long> existingCourses = new HashSet<>(courseRepository.findExistingIds(courseIds));
+        Set<Pair> enrolled = new HashSet<>();
+        for (Object[] row : enrollmentRepository.findEnrolledPairs(userIds, courseIds)) {
+            enrolled.add(new Pair((Long) row[0], (Long) row[1]));
+        }
+
+        List<Pair> granted = new ArrayList<>(candidates.size());
+        List<Order> orders = new ArrayList<>(candidates.size());
+        List<CourseEnrollment> enrollments = new ArrayList<>(candidates.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Integer, Pair> candidate : candidates.entrySet()) {
+            int row = candidate.getKey();
+            Pair pair = candidate.getValue();
+            Status status;
+            if (!existingUsers.contains(pair.userId())) {
+                status = Status.USER_NOT_FOUND;
+            } else if (!existingCourses.contains(pair.courseId())) {
+                status = Status.COURSE_NOT_FOUND;
+            } else if (enrolled.contains(pair)) {
+                status = Status.ALREADY_ENROLLED;
+            } else {
+                status = Status.GRANTED;
+                // Tham chiếu theo id, không SELECT user/course
+                Course course = courseRepository.getReferenceById(pair.courseId());
+                Order order = Order.builder()
+                        .user(userRepository.getReferenceById(pair.userId()))
+                        .totalAmount(BigDecimal.ZERO)
+                        .status(Order.OrderStatus.COMPLETED)
+                        .paymentMethod(Order.PaymentMethod.ADMIN_GRANT)
+                        .paymentStatus(Order.PaymentStatus.COMPLETED)
+                        .orderDetails(new HashSet<>())
+                        .build();
+                // Chi tiết đơn được cascade cùng order, INSERT trong cùng batch JDBC
+                order.getOrderDetails().add(OrderDetail.builder().order(order).course(course).price(BigDecimal.ZERO).build());
+                orders.add(order);
+                enrollments.add(CourseEnrollment.builder()
+                        .user(order.getUser())
+                        .course(course)
+                        .order(order)
+                        .enrollmentDate(now)
+                        .build());
+                granted.add(pair);
+            }
+            results[row - offset] = EnrollmentGrantResult.builder()
+                    .row(row)
+                    .userId(pair.userId())
+                    .courseId(pair.courseId())
+                    .status(status)
+                    .build();
+        }
+
+        orderRepository.saveAll(orders);
+        enrollmentRepository.saveAll(enrollments);
+        // Flush qua repository để lỗi unique được dịch sang DataIntegrityViolationException
+        enrollmentRepository.flush();
+        // Không giữ hàng nghìn entity trong persistence context qua các lô sau
+        entityManager.clear();
+        return granted;
+    }
+
+    private static EnrollmentGrantResult result(int row, EnrollmentGrantRequest grant, Status status) {
+        return EnrollmentGrantResult.builder()
+                .row(row)
+                .userId(grant != null ? grant.getUserId() : null)
+                .courseId(grant != null ? grant.getCourseId() : null)
+                .status(status)
+                .build();
+    }
+}
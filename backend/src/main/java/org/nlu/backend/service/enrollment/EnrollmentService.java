@@ -3,27 +3,38 @@ package org.nlu.backend.service.enrollment;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.nlu.backend.configuration.AuthenticatedUser;
 import org.nlu.backend.dto.request.enrollment.CourseEnrollmentRequest;
+import org.nlu.backend.dto.response.course.EnrolledCoursePageResponse;
 import org.nlu.backend.dto.response.course.EnrolledCourseResponse;
 import org.nlu.backend.entity.*;
 import org.nlu.backend.repository.*;
 import org.nlu.backend.exception.*;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.nlu.backend.service.course.CourseCounterBuffer;
+import org.nlu.backend.service.support.KeysetCursor;
+import org.nlu.backend.service.support.KeysetPage;
+import org.nlu.backend.service.payment.PaymentStatusNotifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class EnrollmentService implements IEnrollmentService {
+    static final int MAX_OWNED_LOOKUP = 200;
+
     CourseRepository courseRepository;
     UserRepository userRepository;
     OrderRepository orderRepository;
     CourseEnrollmentRepository enrollmentRepository;
+    PaymentStatusNotifier paymentStatusNotifier;
+    EntitlementCache entitlementCache;
+    CourseCounterBuffer courseCounterBuffer;
 
     @Transactional
     public void enrollCourse(Long userId, CourseEnrollmentRequest request) {
@@ -34,7 +45,7 @@ public class EnrollmentService implements IEnrollmentService {
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
 
         // Check if already enrolled
-        boolean alreadyEnrolled = enrollmentRepository.existsByUserIdAndCourseId(userId, course.getId());
+        boolean alreadyEnrolled = entitlementCache.confirmOwns(userId, course.getId());
         if (alreadyEnrolled) {
             throw new AppException(ErrorCode.ALREADY_ENROLLED);
         }
@@ -54,38 +65,50 @@ public class EnrollmentService implements IEnrollmentService {
         enrollment.setCourse(course);
         enrollment.setOrder(order);
         enrollment.setEnrollmentDate(LocalDateTime.now());
-        enrollmentRepository.save(enrollment);
+        try {
+            enrollmentRepository.saveAndFlush(enrollment);
+        } catch (DataIntegrityViolationException e) {
+            // Request đồng thời đã ghi danh trước (unique user_id, course_id)
+            throw new AppException(ErrorCode.ALREADY_ENROLLED);
+        }
+        courseCounterBuffer.recordEnrollmentAfterCommit(course.getId());
+        entitlementCache.grantAfterCommit(userId, course.getId());
+        paymentStatusNotifier.paidAfterCommit(userId, course.getId());
     }
     
     @Override
+    @Transactional(readOnly = true)
     public List<EnrolledCourseResponse> getEnrolledCourses() {
-        var context = SecurityContextHolder.getContext();
-        String email = context.getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new AppException(ErrorCode.UNAUTHENTICATED));
+        return enrollmentRepository.findEnrolledCourses(AuthenticatedUser.current().userId(), Pageable.unpaged());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EnrolledCoursePageResponse getEnrolledCoursePage(String cursor, Integer size) {
+        Long userId = AuthenticatedUser.current().userId();
+        int pageSize = KeysetPage.sizeOf(size);
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        List<EnrolledCourseResponse> courses = after == null
+                ? enrollmentRepository.findEnrolledCourses(userId, KeysetPage.fetchLimit(pageSize))
+                : enrollmentRepository.findEnrolledCoursesAfter(userId, after.timeValue(), after.id(), KeysetPage.fetchLimit(pageSize));
 
-        List<CourseEnrollment> enrollments = enrollmentRepository.findByUserId(user.getId());
-        return enrollments.stream()
-                .map(enrollment -> {
-                    Course course = enrollment.getCourse();
-                    return EnrolledCourseResponse.builder()
-                            .id(course.getId())
-                            .title(course.getTitle())
-                            .description(course.getDescription())
-                            .thumbnail(course.getThumbnailUrl())
-                            .price(course.getPrice())
-                            .instructorName(course.getSeller().getFullName())
-                            .enrollmentDate(enrollment.getCreatedAt())
-                            .progress(calculateProgress(enrollment))
-                            .status(enrollment.getCourse().getStatus())
-                            .build();
-                })
-                .collect(Collectors.toList());
+        KeysetPage<EnrolledCourseResponse> page = KeysetPage.of(courses, pageSize,
+                last -> new KeysetCursor(last.getEnrollmentDate().toString(), last.getId()));
+        return EnrolledCoursePageResponse.builder()
+                .items(page.items())
+                .nextCursor(page.nextCursor())
+                .hasNext(page.hasNext())
+                .build();
     }
 
-    private Double calculateProgress(CourseEnrollment enrollment) {
-        // TODO: Implement progress calculation based on completed lessons
-        return 0.0;
+    @Override
+    public List<Long> getOwnedCourseIds(List<Long> courseIds) {
+        if (courseIds == null || courseIds.isEmpty()) {
+            return List.of();
+        }
+        if (courseIds.size() > MAX_OWNED_LOOKUP) {
+            throw new AppException(ErrorCode.TOO_MANY_COURSE_IDS);
+        }
+        return entitlementCache.ownedAmong(AuthenticatedUser.current().userId(), courseIds);
     }
 }
-
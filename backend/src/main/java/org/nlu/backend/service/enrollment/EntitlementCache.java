@@ -0,0 +1,123 @@
+package org.nlu.backend.service.enrollment;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.nlu.backend.repository.CourseEnrollmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Các khóa học mà mỗi người dùng đang hoạt động đã ghi danh, để các kiểm tra quyền
+ * ("người này đã mua khóa X chưa?") không phải truy vấn {@code course_enrollments} mỗi lần.
+ * <p>
+ * Tập id của một người được nạp bằng một truy vấn ở lần hỏi đầu tiên, giữ trong Caffeine có giới hạn
+ * số người dùng, và được thêm phần tử ngay sau khi transaction tạo enrollment commit ({@link #grantAfterCommit}).
+ * Cache nằm trong bộ nhớ của từng instance nên mỗi mục chỉ sống tối đa {@code entitlements.ttl-seconds}:
+ * {@link #owns} có thể trả lời "chưa mua" cũ trong khoảng đó và dùng cho các thao tác chỉ đọc (kiểm tra trạng thái
+ * thanh toán, danh sách đã mua); {@link #confirmOwns} luôn xác nhận câu trả lời âm với DB nên chỉ dùng cho
+ * các quyết định ghi (chống ghi danh trùng, tạo đơn, ghi tiến độ).
+ */
+@Component
+public class EntitlementCache {
+
+    public static final String CACHE_NAME = "entitlements";
+
+    private final Cache<Long, CourseIdSet> cache;
+    private final CourseEnrollmentRepository enrollmentRepository;
+
+    public EntitlementCache(CourseEnrollmentRepository enrollmentRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${entitlements.maximum-users:50000}") long maximumUsers,
+                            @Value("${entitlements.ttl-seconds:600}") long ttlSeconds) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumUsers)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public boolean owns(Long userId, Long courseId) {
+        if (userId == null || courseId == null) {
+            return false;
+        }
+        return courseIds(userId).contains(courseId);
+    }
+
+    /**
+     * Như {@link #owns} nhưng câu trả lời âm được kiểm tra lại với DB (enrollment có thể vừa được tạo
+     * ở instance khác); nếu DB có thì cập nhật cache.
+     */
+    public boolean confirmOwns(Long userId, Long courseId) {
+        if (owns(userId, courseId)) {
+            return true;
+        }
+        if (userId == null || courseId == null || !enrollmentRepository.existsByUserIdAndCourseId(userId, courseId)) {
+            return false;
+        }
+        grant(userId, courseId);
+        return true;
+    }
+
+    /**
+     * @return các id trong {@code courseIds} mà người dùng đã ghi danh, giữ thứ tự và bỏ trùng
+     */
+    public List<Long> ownedAmong(Long userId, Collection<Long> courseIds) {
+        List<Long> owned = new ArrayList<>();
+        if (userId == null || courseIds.isEmpty()) {
+            return owned;
+        }
+        CourseIdSet set = courseIds(userId);
+        for (Long courseId : new LinkedHashSet<>(courseIds)) {
+            if (courseId != null && set.contains(courseId)) {
+                owned.add(courseId);
+            }
+        }
+        return owned;
+    }
+
+    /**
+     * Thêm khóa học vào tập của người dùng khi transaction hiện tại commit (ngay lập tức nếu không có
+     * transaction), để enrollment bị rollback không để lại quyền trong cache.
+     */
+    public void grantAfterCommit(Long userId, Long courseId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            grant(userId, courseId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                grant(userId, courseId);
+            }
+        });
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    // Chỉ cập nhật người đã có trong cache; người chưa có sẽ được nạp đầy đủ ở lần hỏi sau.
+    // computeIfPresent chờ lần nạp đang chạy của cùng người dùng xong rồi mới thêm, nên không bị ghi đè.
+    void grant(Long userId, Long courseId) {
+        if (userId == null || courseId == null) {
+            return;
+        }
+        cache.asMap().computeIfPresent(userId, (key, set) -> set.with(courseId));
+    }
+
+    private CourseIdSet courseIds(Long userId) {
+        return cache.get(userId, key -> CourseIdSet.of(enrollmentRepository.findCourseIdsByUserId(key)));
+    }
+}
@@ -0,0 +1,20 @@
+package org.nlu.backend.service.enrollment;
+
+import org.nlu.backend.dto.request.enrollment.EnrollmentGrantRequest;
+import org.nlu.backend.dto.response.enrollment.EnrollmentGrantResult;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface IEnrollmentGrantService {
+    /**
+     * Kiểm tra request trước khi bắt đầu stream kết quả, để lỗi trả về đúng mã 4xx thay vì một response 200 bị cắt.
+     */
+    void validateGrants(List<EnrollmentGrantRequest> grants);
+
+    /**
+     * Cấp quyền học cho các cặp (userId, courseId); mỗi dòng nhận đúng một kết quả qua {@code report},
+     * theo thứ tự trong request, sau khi lô chứa dòng đó đã commit.
+     */
+    void grantEnrollments(List<EnrollmentGrantRequest> grants, Consumer<EnrollmentGrantResult> report);
+}
@@ -1,6 +1,7 @@
 package org.nlu.backend.service.enrollment;
 
 import org.nlu.backend.dto.request.enrollment.CourseEnrollmentRequest;
+import org.nlu.backend.dto.response.course.EnrolledCoursePageResponse;
 import org.nlu.backend.dto.response.course.EnrolledCourseResponse;
 
 import java.util.List;
@@ -8,4 +9,6 @@ import java.util.List;
 public interface IEnrollmentService {
     void enrollCourse(Long userId, CourseEnrollmentRequest request);
     List<EnrolledCourseResponse> getEnrolledCourses();
+    EnrolledCoursePageResponse getEnrolledCoursePage(String cursor, Integer size);
+    List<Long> getOwnedCourseIds(List<Long> courseIds);
 }
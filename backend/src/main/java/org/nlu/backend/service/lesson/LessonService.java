@@ -3,6 +3,7 @@ package org.nlu.backend.service.lesson;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.nlu.backend.configuration.CacheConfig;
 import org.nlu.backend.dto.request.lesson.LessonCreationRequest;
 import org.nlu.backend.dto.request.lesson.LessonUpdateRequest;
 import org.nlu.backend.dto.response.lesson.LessonResponse;
@@ -14,12 +15,15 @@ import org.nlu.backend.exception.ErrorCode;
 import org.nlu.backend.mapper.LessonMapper;
 import org.nlu.backend.repository.CourseRepository;
 import org.nlu.backend.repository.LessonRepository;
+import org.nlu.backend.service.progress.ILessonProgressService;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,115 +32,164 @@ public class LessonService implements ILessonService {
     LessonRepository lessonRepository;
     CourseRepository courseRepository;
     LessonMapper lessonMapper;
+    ILessonProgressService lessonProgressService;
+
+    // lesson_order là khóa thưa (cách nhau ORDER_GAP) để chèn/di chuyển/xóa chỉ ghi một dòng;
+    // API vẫn trả về vị trí 1, 2, 3... trong trường order
+    public static final int ORDER_GAP = 1024;
 
     @Override
     @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
     public List<LessonSummaryResponse> getLessonsByCourseId(Long courseId) {
-        Course course = getCourseAndValidateAccess(courseId);
-        return course.getLessons().stream()
-                .map(lessonMapper::toLessonSummaryResponse)
-                .collect(Collectors.toList());
+        List<LessonSummaryResponse> lessons = lessonRepository.findSummariesByCourseId(courseId);
+        if (lessons.isEmpty() && !courseRepository.existsById(courseId)) {
+            throw new AppException(ErrorCode.COURSE_NOT_FOUND);
+        }
+        for (int i = 0; i < lessons.size(); i++) {
+            lessons.get(i).setOrder(i + 1);
+        }
+        return lessons;
     }
 
     @Override
     @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
     public LessonResponse getLessonById(Long courseId, Long lessonId) {
-        Course course = getCourseAndValidateAccess(courseId);
-        Lesson lesson = course.getLessons().stream()
-                .filter(l -> l.getId().equals(lessonId))
-                .findFirst()
-                .orElseThrow(() -> new AppException(ErrorCode.LESSON_NOT_FOUND));
-        return lessonMapper.toLessonResponse(lesson);
+        Lesson lesson = findLesson(courseId, lessonId);
+        return toLessonResponse(lesson);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.COURSE_DETAIL, key = "#courseId")
     @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
     @Transactional
     public LessonResponse createLesson(Long courseId, LessonCreationRequest request) {
         Course course = getCourseAndValidateAccess(courseId);
-        
+
+        Lesson lesson = lessonMapper.toLesson(request);
+        lesson.setCourse(course);
+
         // Set the order to be the last if not specified
         if (request.getOrder() == null) {
-            request.setOrder(course.getLessons().size() + 1);
+            lesson.setOrder(lessonRepository.findMaxOrderByCourseId(courseId) + ORDER_GAP);
+        } else {
+            lesson.setOrder(orderKeyForPosition(courseId, null, null, request.getOrder()));
         }
-        
-        Lesson lesson = lessonMapper.toLesson(request);
-        lesson.setCourse(course);
-        
+
         lesson = lessonRepository.save(lesson);
-        return lessonMapper.toLessonResponse(lesson);
+        courseRepository.addLessonCount(courseId, 1);
+        return toLessonResponse(lesson);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.COURSE_DETAIL, key = "#courseId")
     @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
     @Transactional
     public LessonResponse updateLesson(Long courseId, Long lessonId, LessonUpdateRequest request) {
-        Course course = getCourseAndValidateAccess(courseId);
-        Lesson lesson = course.getLessons().stream()
-                .filter(l -> l.getId().equals(lessonId))
-                .findFirst()
-                .orElseThrow(() -> new AppException(ErrorCode.LESSON_NOT_FOUND));
+        Lesson lesson = findLesson(courseId, lessonId);
 
         // Update lesson fields
         lesson.setTitle(request.getTitle());
         lesson.setDescription(request.getDescription());
         lesson.setVideoUrl(request.getVideoUrl());
         lesson.setFileUrl(request.getFileUrl());
-        lesson.setOrder(request.getOrder());
         lesson.setPreview(request.isPreview());
+        if (request.getOrder() != null) {
+            lesson.setOrder(orderKeyForPosition(courseId, lesson.getId(), lesson.getOrder(), request.getOrder()));
+        }
 
         lesson = lessonRepository.save(lesson);
-        return lessonMapper.toLessonResponse(lesson);
+        return toLessonResponse(lesson);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.COURSE_DETAIL, key = "#courseId")
     @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
     @Transactional
     public void deleteLesson(Long courseId, Long lessonId) {
-        Course course = getCourseAndValidateAccess(courseId);
-        Lesson lesson = course.getLessons().stream()
-                .filter(l -> l.getId().equals(lessonId))
-                .findFirst()
-                .orElseThrow(() -> new AppException(ErrorCode.LESSON_NOT_FOUND));
+        Lesson lesson = findLesson(courseId, lessonId);
 
+        // Khoảng trống để lại không ảnh hưởng thứ tự, không cần đánh số lại các bài còn lại
         lessonRepository.delete(lesson);
-        
-        // Reorder remaining lessons
-        List<Lesson> remainingLessons = course.getLessons().stream()
-                .filter(l -> !l.getId().equals(lessonId))
-                .collect(Collectors.toList());
-        
-        for (int i = 0; i < remainingLessons.size(); i++) {
-            remainingLessons.get(i).setOrder(i + 1);
-        }
-        
-        lessonRepository.saveAll(remainingLessons);
+        courseRepository.addLessonCount(courseId, -1);
+        lessonProgressService.lessonDeleted(courseId, lessonId);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.COURSE_DETAIL, key = "#courseId")
     @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
     @Transactional
     public void reorderLessons(Long courseId, List<Long> lessonIds) {
-        Course course = getCourseAndValidateAccess(courseId);
-        
-        // Validate that all lessons belong to the course
-        if (lessonIds.size() != course.getLessons().size() || 
-            !course.getLessons().stream().map(Lesson::getId).collect(Collectors.toSet())
-                .containsAll(lessonIds)) {
+        if (!courseRepository.existsById(courseId)) {
+            throw new AppException(ErrorCode.COURSE_NOT_FOUND);
+        }
+
+        // Validate that the request is a permutation of the course's lessons
+        List<Long> currentIds = lessonRepository.findIdsByCourseIdOrdered(courseId);
+        if (lessonIds.size() != currentIds.size() || !new HashSet<>(lessonIds).equals(new HashSet<>(currentIds))) {
             throw new AppException(ErrorCode.INVALID_LESSON_ORDER);
         }
 
-        // Update order for each lesson
-        for (int i = 0; i < lessonIds.size(); i++) {
-            Long lessonId = lessonIds.get(i);
-            int finalI = i;
-            course.getLessons().stream()
-                    .filter(l -> l.getId().equals(lessonId))
-                    .findFirst()
-                    .ifPresent(lesson -> lesson.setOrder(finalI + 1));
+        // Update order for all lessons in one UPDATE ... CASE statement
+        lessonRepository.updateOrders(courseId, lessonIds, spacedOrders(lessonIds.size()));
+    }
+
+    /**
+     * Pick a lesson_order that puts a lesson at the given 1-based position, halfway between its
+     * new neighbours. Only when two neighbours have no room left are the course's orders re-spaced.
+     * @param lessonId Lesson being moved (excluded from the neighbours), null for a new lesson
+     * @param currentOrder Current lesson_order of the moved lesson, kept if it is already in place
+     */
+    private int orderKeyForPosition(Long courseId, Long lessonId, Integer currentOrder, int position) {
+        List<Integer> orders = lessonId == null
+                ? lessonRepository.findOrdersByCourseId(courseId)
+                : lessonRepository.findOrdersByCourseIdExcluding(courseId, lessonId);
+        int index = Math.max(0, Math.min(position - 1, orders.size()));
+        Integer before = index > 0 ? orders.get(index - 1) : null;
+        Integer after = index < orders.size() ? orders.get(index) : null;
+
+        if (currentOrder != null && (before == null || before < currentOrder) && (after == null || currentOrder < after)) {
+            return currentOrder;
+        }
+        if (before == null && after == null) {
+            return ORDER_GAP;
+        }
+        if (after == null) {
+            return before + ORDER_GAP;
+        }
+        if (before == null) {
+            return after - ORDER_GAP;
+        }
+        if (after - before > 1) {
+            return before + (after - before) / 2;
+        }
+
+        // Hết khoảng trống giữa hai bài: giãn lại thứ tự cả khóa học rồi tính lại
+        List<Long> ids = lessonRepository.findIdsByCourseIdOrdered(courseId);
+        lessonRepository.updateOrders(courseId, ids, spacedOrders(ids.size()));
+        return orderKeyForPosition(courseId, lessonId, null, position);
+    }
+
+    private static List<Integer> spacedOrders(int count) {
+        List<Integer> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add((i + 1) * ORDER_GAP);
         }
+        return orders;
+    }
+
+    private LessonResponse toLessonResponse(Lesson lesson) {
+        LessonResponse response = lessonMapper.toLessonResponse(lesson);
+        response.setOrder((int) lessonRepository.countPreceding(
+                lesson.getCourse().getId(), lesson.getOrder(), lesson.getId()) + 1);
+        return response;
+    }
 
-        courseRepository.save(course);
+    // Tra cứu trực tiếp theo (course_id, id) thay vì duyệt course.getLessons()
+    private Lesson findLesson(Long courseId, Long lessonId) {
+        return lessonRepository.findByIdAndCourseId(lessonId, courseId)
+                .orElseThrow(() -> new AppException(courseRepository.existsById(courseId)
+                        ? ErrorCode.LESSON_NOT_FOUND
+                        : ErrorCode.COURSE_NOT_FOUND));
     }
 
     private Course getCourseAndValidateAccess(Long courseId) {
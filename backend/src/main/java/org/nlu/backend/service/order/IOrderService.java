@@ -1,5 +1,7 @@
 package org.nlu.backend.service.order;
 
+import org.nlu.backend.dto.request.order.CheckoutRequest;
+import org.nlu.backend.dto.response.order.OrderPageResponse;
 import org.nlu.backend.dto.response.order.OrderResponse;
 
 public interface IOrderService {
@@ -17,4 +19,20 @@ public interface IOrderService {
      * @return OrderResponse if payment exists, null otherwise
      */
     OrderResponse getOrderByCourseAndUser(Long courseId, Long userId);
+
+    /**
+     * Order history of the current user, newest first (cursor-based)
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param size page size (default 20, max 100)
+     * @return one page of orders with their details
+     */
+    OrderPageResponse getMyOrders(String cursor, Integer size);
+
+    /**
+     * Create (or reuse) a pending bank-transfer order for the current user.
+     * The amount is frozen at checkout and the returned payment reference must appear in the transfer content.
+     * @param request The course to buy
+     * @return the pending order with its payment reference
+     */
+    OrderResponse checkout(CheckoutRequest request);
 }
@@ -0,0 +1,9 @@
+package org.nlu.backend.service.order;
+
+import java.math.BigDecimal;
+
+/**
+ * Một dòng order_details ở dạng phẳng (không nạp Course), đọc cho nhiều đơn trong một truy vấn.
+ */
+public record OrderDetailRow(Long orderId, Long id, Long courseId, BigDecimal price) {
+}
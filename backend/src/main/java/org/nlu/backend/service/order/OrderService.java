@@ -3,21 +3,34 @@ package org.nlu.backend.service.order;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.nlu.backend.configuration.AuthenticatedUser;
+import org.nlu.backend.dto.request.order.CheckoutRequest;
+import org.nlu.backend.dto.response.course.CourseSummaryResponse;
 import org.nlu.backend.dto.response.order.OrderDetailResponse;
+import org.nlu.backend.dto.response.order.OrderPageResponse;
 import org.nlu.backend.dto.response.order.OrderResponse;
 import org.nlu.backend.entity.Course;
-import org.nlu.backend.entity.CourseEnrollment;
 import org.nlu.backend.entity.Order;
 import org.nlu.backend.entity.OrderDetail;
+import org.nlu.backend.entity.User;
 import org.nlu.backend.exception.AppException;
 import org.nlu.backend.exception.ErrorCode;
-import org.nlu.backend.mapper.CourseMapper;
-import org.nlu.backend.repository.CourseEnrollmentRepository;
 import org.nlu.backend.repository.CourseRepository;
 import org.nlu.backend.repository.OrderRepository;
+import org.nlu.backend.repository.UserRepository;
+import org.nlu.backend.service.enrollment.EntitlementCache;
+import org.nlu.backend.service.payment.PaymentReferenceCodec;
+import org.nlu.backend.service.support.KeysetCursor;
+import org.nlu.backend.service.support.KeysetPage;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,54 +38,151 @@ import java.util.stream.Collectors;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class OrderService implements IOrderService {
     OrderRepository orderRepository;
-    CourseEnrollmentRepository courseEnrollmentRepository;
     CourseRepository courseRepository;
-    CourseMapper courseMapper;
+    UserRepository userRepository;
+    EntitlementCache entitlementCache;
+
+    // Cùng giá trị với PendingOrderSweeper: đơn PENDING cũ hơn chừng này sẽ bị hủy
+    @NonFinal
+    @Value("${order.pending.ttl-minutes:1440}")
+    long pendingTtlMinutes;
+
+    // Thời gian tối thiểu còn lại để người mua kịp chuyển khoản cho một đơn được dùng lại
+    @NonFinal
+    @Value("${order.pending.payment-window-minutes:60}")
+    long paymentWindowMinutes;
 
     @Override
+    @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new AppException(ErrorCode.ORDER_NOT_FOUND));
         
-        return mapOrderToResponse(order);
+        return toResponses(List.of(order)).get(0);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OrderResponse getOrderByCourseAndUser(Long courseId, Long userId) {
-        // Find enrollment for this course and user
-        CourseEnrollment enrollment = courseEnrollmentRepository.findByUserIdAndCourseId(userId, courseId)
+        // Đơn của enrollment (userId, courseId), đọc thẳng thay vì nạp enrollment rồi order
+        return orderRepository.findByEnrollment(userId, courseId)
+                .map(order -> toResponses(List.of(order)).get(0))
                 .orElse(null);
-        
-        if (enrollment == null) {
-            return null;
-        }
-        
-        Order order = enrollment.getOrder();
-        return mapOrderToResponse(order);
     }
-    
-    private OrderResponse mapOrderToResponse(Order order) {
-        List<OrderDetailResponse> detailResponses = order.getOrderDetails().stream()
-                .map(this::mapOrderDetailToResponse)
-                .collect(Collectors.toList());
-                
-        return OrderResponse.builder()
-                .id(order.getId())
-                .orderNumber("ORD-" + order.getId())
-                .createdAt(order.getCreatedAt())
-                .totalAmount(order.getTotalAmount())
-                .status(order.getStatus())
-                .paymentMethod(order.getPaymentMethod())
-                .paymentStatus(order.getPaymentStatus())
-                .orderDetails(detailResponses)
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPageResponse getMyOrders(String cursor, Integer size) {
+        return getOrderPage(AuthenticatedUser.current().userId(), cursor, size);
+    }
+
+    OrderPageResponse getOrderPage(Long userId, String cursor, Integer size) {
+        int pageSize = KeysetPage.sizeOf(size);
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        List<Order> orders = after == null
+                ? orderRepository.findByUserId(userId, KeysetPage.fetchLimit(pageSize))
+                : orderRepository.findByUserIdAfter(userId, after.timeValue(), after.id(), KeysetPage.fetchLimit(pageSize));
+
+        KeysetPage<Order> page = KeysetPage.of(orders, pageSize,
+                last -> new KeysetCursor(last.getCreatedAt().toString(), last.getId()));
+        return OrderPageResponse.builder()
+                .items(toResponses(page.items()))
+                .nextCursor(page.nextCursor())
+                .hasNext(page.hasNext())
                 .build();
     }
     
-    private OrderDetailResponse mapOrderDetailToResponse(OrderDetail detail) {
-        return OrderDetailResponse.builder()
-                .id(detail.getId())
-                .price(detail.getPrice())
-                .course(courseMapper.toCourseSummaryResponse(detail.getCourse()))
+    @Override
+    @Transactional
+    public OrderResponse checkout(CheckoutRequest request) {
+        User user = userRepository.getReferenceById(AuthenticatedUser.current().userId());
+        Course course = courseRepository.findById(request.getCourseId())
+                .orElseThrow(() -> new AppException(ErrorCode.COURSE_NOT_FOUND));
+
+        if (entitlementCache.confirmOwns(user.getId(), course.getId())) {
+            throw new AppException(ErrorCode.ALREADY_ENROLLED);
+        }
+
+        // Người dùng quay lại trang thanh toán: dùng lại đơn đang chờ để mã chuyển khoản không đổi,
+        // trừ khi đơn sắp hết hạn (tránh đơn bị sweeper hủy ngay trong lúc khách đang chuyển khoản)
+        LocalDateTime reusableSince = LocalDateTime.now().minusMinutes(pendingTtlMinutes - paymentWindowMinutes);
+        List<Order> pendingOrders = orderRepository.findPendingByUserIdAndCourseId(user.getId(), course.getId(), reusableSince);
+        if (!pendingOrders.isEmpty()) {
+            return mapOrderToResponse(pendingOrders.get(0));
+        }
+
+        // Giá được chốt tại thời điểm checkout, webhook chỉ so với số tiền này
+        BigDecimal amount = Course.effectivePriceOf(course.getPrice(), course.getDiscountPrice());
+        Order order = Order.builder()
+                .user(user)
+                .totalAmount(amount)
+                .status(Order.OrderStatus.PENDING)
+                .paymentMethod(Order.PaymentMethod.BANK_TRANSFER)
+                .paymentStatus(Order.PaymentStatus.PENDING)
+                .orderDetails(new HashSet<>())
+                .enrollments(new HashSet<>())
                 .build();
+        order.getOrderDetails().add(OrderDetail.builder()
+                .order(order)
+                .course(course)
+                .price(amount)
+                .build());
+
+        // Id được cấp khi persist (bộ sinh theo lô), nên có thể tạo mã trước khi ghi xuống DB
+        order = orderRepository.save(order);
+        order.setPaymentReference(PaymentReferenceCodec.encode(order.getId()));
+        return mapOrderToResponse(order);
+    }
+
+    // Đơn vừa tạo/đang chờ: chi tiết đã có trong bộ nhớ, chỉ cần đọc thông tin khóa học
+    private OrderResponse mapOrderToResponse(Order order) {
+        List<OrderDetailRow> details = order.getOrderDetails().stream()
+                .map(detail -> new OrderDetailRow(order.getId(), detail.getId(), detail.getCourse().getId(), detail.getPrice()))
+                .toList();
+        return toResponses(List.of(order), details).get(0);
+    }
+
+    /**
+     * Dựng OrderResponse cho nhiều đơn với số truy vấn cố định: một truy vấn cho chi tiết của tất cả các đơn,
+     * một truy vấn projection cho các khóa học (kèm level, seller, category), thay vì nạp lazy theo từng chi tiết.
+     */
+    private List<OrderResponse> toResponses(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        List<Long> orderIds = orders.stream().map(Order::getId).toList();
+        return toResponses(orders, orderRepository.findDetailRows(orderIds));
+    }
+
+    private List<OrderResponse> toResponses(List<Order> orders, List<OrderDetailRow> details) {
+        Set<Long> courseIds = details.stream().map(OrderDetailRow::courseId).collect(Collectors.toSet());
+        Map<Long, CourseSummaryResponse> courses = courseIds.isEmpty() ? Map.of() : courseRepository.findSummaries(
+                        (root, query, cb) -> root.get("id").in(courseIds), null).stream()
+                .collect(Collectors.toMap(CourseSummaryResponse::getId, Function.identity()));
+
+        Map<Long, List<OrderDetailResponse>> detailsByOrder = new HashMap<>();
+        for (OrderDetailRow detail : details) {
+            detailsByOrder.computeIfAbsent(detail.orderId(), id -> new ArrayList<>()).add(OrderDetailResponse.builder()
+                    .id(detail.id())
+                    .price(detail.price())
+                    .course(courses.get(detail.courseId()))
+                    .build());
+        }
+
+        List<OrderResponse> responses = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            responses.add(OrderResponse.builder()
+                    .id(order.getId())
+                    .orderNumber("ORD-" + order.getId())
+                    .createdAt(order.getCreatedAt())
+                    .totalAmount(order.getTotalAmount())
+                    .status(order.getStatus())
+                    .paymentMethod(order.getPaymentMethod())
+                    .paymentStatus(order.getPaymentStatus())
+                    .paymentReference(order.getPaymentReference())
+                    .orderDetails(detailsByOrder.getOrDefault(order.getId(), List.of()))
+                    .build());
+        }
+        return responses;
     }
 }
@@ -0,0 +1,75 @@
+package org.nlu.backend.service.order;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.nlu.backend.repository.OrderRepository;
+import org.nlu.backend.service.support.BatchedSweep;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hủy các đơn PENDING (tạo ở checkout) mà không có khoản chuyển nào trong thời hạn cho phép.
+ * <p>
+ * Mỗi lô là một transaction: khóa tối đa {@code batchSize} đơn quá hạn theo index (status, created_at)
+ * với SKIP LOCKED rồi cập nhật chúng bằng một câu UPDATE, nên nhiều instance chạy cùng lúc sẽ lấy các lô khác nhau.
+ * Sweeper chỉ hủy đơn còn PENDING nên không hủy đơn đã trả; khoản chuyển đến sau khi đơn bị hủy vẫn
+ * chuyển đơn CANCELLED sang COMPLETED (xem {@code OrderRepository.markPaid}).
+ */
+@Component
+@Slf4j
+public class PendingOrderSweeper {
+
+    static final int MAX_BATCHES_PER_RUN = 20;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration pendingTtl;
+    private final int batchSize;
+
+    private final Counter expiredCounter;
+    private final DistributionSummary rowsPerRun;
+    private final Timer sweepTimer;
+
+    public PendingOrderSweeper(OrderRepository orderRepository,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${order.pending.ttl-minutes:1440}") long pendingTtlMinutes,
+                               @Value("${order.pending.sweep-batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.pendingTtl = Duration.ofMinutes(pendingTtlMinutes);
+        this.batchSize = batchSize;
+        this.expiredCounter = meterRegistry.counter("orders.pending.expired");
+        this.rowsPerRun = DistributionSummary.builder("orders.pending.sweep.rows")
+                .description("Số đơn PENDING bị hủy mỗi lần quét")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("orders.pending.sweep.duration").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.pending.sweep-interval-ms:60000}")
+    public void sweep() {
+        int swept = sweepTimer.record(this::sweepExpired);
+        rowsPerRun.record(swept);
+        if (swept > 0) {
+            log.info("Cancelled {} expired pending orders", swept);
+        }
+    }
+
+    int sweepExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(pendingTtl);
+        return BatchedSweep.run(transactionTemplate, batchSize, MAX_BATCHES_PER_RUN, expiredCounter, limit -> {
+            List<Long> ids = orderRepository.lockExpiredPendingIds(cutoff, PageRequest.of(0, limit));
+            return ids.isEmpty() ? 0 : orderRepository.cancelPending(ids);
+        });
+    }
+}
@@ -2,12 +2,14 @@ package org.nlu.backend.service.payment;
 
 import java.util.Map;
 import org.nlu.backend.dto.request.payment.BankWebhookRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface IPaymentService {
     /**
-     * Process bank webhook payment notification
+     * Accept a bank webhook payment notification into the payment inbox.
+     * The order and enrollment are created asynchronously by the inbox worker.
      * @param request The webhook request data from the bank
-     * @return true if payment was successfully processed, false otherwise
+     * @return true if the transfer was accepted (including repeated deliveries), false if it is not an incoming transfer
      */
     boolean processBankWebhook(BankWebhookRequest request);
     
@@ -18,4 +20,12 @@ public interface IPaymentService {
      * @return true if payment is completed and enrollment exists, false otherwise
      */
     boolean checkPaymentStatus(Long userId, Long courseId);
+
+    /**
+     * Open a Server-Sent Events stream that receives a single event once the user is enrolled in the course
+     * @param userId User ID
+     * @param courseId Course ID
+     * @return the emitter, completed after the payment event or when it times out
+     */
+    SseEmitter subscribePaymentStatus(Long userId, Long courseId);
 }
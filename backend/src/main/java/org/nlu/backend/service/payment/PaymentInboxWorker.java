@@ -0,0 +1,155 @@
+package org.nlu.backend.service.payment;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.nlu.backend.entity.PaymentTransaction;
+import org.nlu.backend.repository.PaymentTransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lấy các giao dịch SePay đã nhận trong inbox ({@code payment_transactions}) ra xử lý trên một pool
+ * luồng giới hạn, tách khỏi request webhook.
+ * <p>
+ * Lỗi bất ngờ được thử lại với backoff tăng dần; quá {@link #MAX_ATTEMPTS} lần thì chuyển sang DEAD
+ * để xử lý tay. Một dòng PROCESSING quá hạn giữ (worker chết giữa chừng) sẽ được lấy lại.
+ */
+@Component
+@Slf4j
+public class PaymentInboxWorker {
+
+    static final List<PaymentTransaction.Status> PENDING = List.of(
+            PaymentTransaction.Status.RECEIVED,
+            PaymentTransaction.Status.RETRY,
+            PaymentTransaction.Status.PROCESSING);
+    static final int MAX_ATTEMPTS = 8;
+    static final Duration LEASE = Duration.ofMinutes(5);
+    static final Duration BASE_BACKOFF = Duration.ofSeconds(5);
+    static final Duration MAX_BACKOFF = Duration.ofMinutes(30);
+    static final int QUEUE_CAPACITY = 64;
+
+    private final PaymentService paymentService;
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final AtomicLong deadLetters = new AtomicLong();
+    private final Counter processedCounter;
+    private final Counter retriedCounter;
+    private final Counter deadLetteredCounter;
+    private final Timer processingLag;
+
+    public PaymentInboxWorker(PaymentService paymentService,
+                              PaymentTransactionRepository paymentTransactionRepository,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${payment.inbox.workers:4}") int workers) {
+        this.paymentService = paymentService;
+        this.paymentTransactionRepository = paymentTransactionRepository;
+        this.transactionTemplate = transactionTemplate;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> new Thread(runnable, "payment-inbox-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        Gauge.builder("payment.webhook.inbox.depth", queueDepth, AtomicLong::get)
+                .description("Giao dịch đang chờ xử lý trong inbox")
+                .register(meterRegistry);
+        Gauge.builder("payment.webhook.inbox.lag", lagSeconds, AtomicLong::get)
+                .description("Tuổi (giây) của giao dịch chờ lâu nhất")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("payment.webhook.inbox.dead", deadLetters, AtomicLong::get)
+                .description("Giao dịch đã bỏ cuộc sau nhiều lần thử, cần xử lý tay")
+                .register(meterRegistry);
+        this.processedCounter = meterRegistry.counter("payment.webhook.processed");
+        this.retriedCounter = meterRegistry.counter("payment.webhook.retried");
+        this.deadLetteredCounter = meterRegistry.counter("payment.webhook.dead_lettered");
+        this.processingLag = Timer.builder("payment.webhook.processing.lag")
+                .description("Thời gian từ lúc nhận webhook đến khi xử lý xong")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.inbox.poll-interval-ms:1000}")
+    public void poll() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Long id : paymentTransactionRepository.findDueIds(PENDING, now, PageRequest.of(0, capacity))) {
+            if (paymentTransactionRepository.claim(id, PENDING, now, now.plus(LEASE)) == 1) {
+                executor.execute(() -> process(id));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.inbox.metrics-interval-ms:15000}")
+    public void refreshMetrics() {
+        queueDepth.set(paymentTransactionRepository.countByStatusIn(PENDING));
+        deadLetters.set(paymentTransactionRepository.countByStatus(PaymentTransaction.Status.DEAD));
+        LocalDateTime oldest = paymentTransactionRepository.findOldestCreatedAt(PENDING);
+        lagSeconds.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds()));
+    }
+
+    void process(Long id) {
+        try {
+            PaymentTransaction transaction = transactionTemplate.execute(status -> paymentService.fulfill(id));
+            if (transaction != null) {
+                processedCounter.increment();
+                processingLag.record(Duration.between(transaction.getCreatedAt(), LocalDateTime.now()));
+            }
+        } catch (Exception e) {
+            log.warn("Payment transaction {} failed, scheduling retry", id, e);
+            transactionTemplate.executeWithoutResult(status -> scheduleRetry(id, e));
+        }
+    }
+
+    private void scheduleRetry(Long id, Exception error) {
+        paymentTransactionRepository.findById(id).ifPresent(transaction -> {
+            String message = String.valueOf(error.getMessage());
+            transaction.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+            if (transaction.getAttempts() >= MAX_ATTEMPTS) {
+                transaction.setStatus(PaymentTransaction.Status.DEAD);
+                transaction.setNextAttemptAt(null);
+                deadLetteredCounter.increment();
+                log.error("Payment transaction {} moved to dead letter after {} attempts", id, transaction.getAttempts());
+            } else {
+                transaction.setStatus(PaymentTransaction.Status.RETRY);
+                transaction.setNextAttemptAt(LocalDateTime.now().plus(backoff(transaction.getAttempts())));
+                retriedCounter.increment();
+            }
+        });
+    }
+
+    // 5s, 10s, 20s, ... tối đa 30 phút
+    static Duration backoff(int attempts) {
+        Duration delay = BASE_BACKOFF.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,170 @@
+package org.nlu.backend.service.payment;
+
+import java.util.Arrays;
+
+/**
+ * Mã tham chiếu thanh toán mà người mua ghi vào nội dung chuyển khoản, ví dụ {@code TMDT00000C1SM} (đơn hàng 12345).
+ * <p>
+ * Gồm tiền tố {@value #PREFIX}, id đơn hàng ở dạng Crockford base32 cố định {@value #DIGITS} ký tự
+ * và một ký tự kiểm tra (Luhn mod 32). Độ dài cố định nên vẫn tách được mã khi ngân hàng dính liền
+ * nội dung phía sau; ký tự kiểm tra loại bỏ mã gõ sai một ký tự hoặc đảo hai ký tự kề nhau.
+ * <p>
+ * Việc tìm mã trong nội dung (thường là SMS dài, nhiều nhiễu) được làm trong một lần duyệt,
+ * không dùng regex và không tạo chuỗi trung gian.
+ */
+public final class PaymentReferenceCodec {
+
+    public static final String PREFIX = "TMDT";
+    public static final int DIGITS = 8;
+    public static final int LENGTH = PREFIX.length() + DIGITS + 1;
+    public static final long MAX_ID = (1L << (5 * DIGITS)) - 1;
+    public static final long NOT_FOUND = -1L;
+
+    private static final int BASE = 32;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = (byte) i;
+            VALUES[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+        // Crockford: các ký tự dễ nhầm được đọc như chữ số tương ứng
+        VALUES['O'] = VALUES['o'] = 0;
+        VALUES['I'] = VALUES['i'] = VALUES['L'] = VALUES['l'] = 1;
+    }
+
+    /**
+     * Mã cũ do frontend sinh: {@code COURSE<courseId>USER<userId>}.
+     */
+    public record LegacyReference(long courseId, long userId) {
+    }
+
+    private PaymentReferenceCodec() {
+    }
+
+    public static String encode(long id) {
+        if (id < 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("Payment reference id out of range: " + id);
+        }
+        char[] code = new char[LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), code, 0);
+        int sum = 0;
+        boolean doubled = true; // chữ số sát ký tự kiểm tra được nhân đôi
+        for (int i = DIGITS - 1; i >= 0; i--) {
+            int digit = (int) (id & (BASE - 1));
+            id >>>= 5;
+            code[PREFIX.length() + i] = ALPHABET[digit];
+            sum += luhnAddend(digit, doubled);
+            doubled = !doubled;
+        }
+        code[LENGTH - 1] = ALPHABET[(BASE - sum % BASE) % BASE];
+        return new String(code);
+    }
+
+    /**
+     * @return id đơn hàng của mã hợp lệ đầu tiên trong nội dung, hoặc {@link #NOT_FOUND}
+     */
+    public static long decode(CharSequence content) {
+        if (content == null) {
+            return NOT_FOUND;
+        }
+        int last = content.length() - LENGTH;
+        for (int start = 0; start <= last; start++) {
+            if (matchesIgnoreCase(content, start, PREFIX)) {
+                long id = decodeAt(content, start + PREFIX.length());
+                if (id != NOT_FOUND) {
+                    return id;
+                }
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * @return cặp (courseId, userId) của mã {@code COURSE..USER..} đầu tiên trong nội dung, hoặc null
+     */
+    public static LegacyReference decodeLegacy(CharSequence content) {
+        if (content == null) {
+            return null;
+        }
+        int length = content.length();
+        for (int start = 0; start < length; start++) {
+            if (!matchesIgnoreCase(content, start, "COURSE")) {
+                continue;
+            }
+            int position = start + 6;
+            long courseId = 0;
+            int courseDigits = 0;
+            while (position < length && isDigit(content.charAt(position)) && courseDigits < 18) {
+                courseId = courseId * 10 + (content.charAt(position++) - '0');
+                courseDigits++;
+            }
+            if (courseDigits == 0 || !matchesIgnoreCase(content, position, "USER")) {
+                continue;
+            }
+            position += 4;
+            long userId = 0;
+            int userDigits = 0;
+            while (position < length && isDigit(content.charAt(position)) && userDigits < 18) {
+                userId = userId * 10 + (content.charAt(position++) - '0');
+                userDigits++;
+            }
+            if (userDigits > 0) {
+                return new LegacyReference(courseId, userId);
+            }
+        }
+        return null;
+    }
+
+    private static long decodeAt(CharSequence content, int offset) {
+        long id = 0;
+        int sum = 0;
+        // Luhn đếm vị trí từ phải sang: chữ số sát ký tự kiểm tra được nhân đôi, xen kẽ về bên trái
+        boolean doubled = (DIGITS - 1) % 2 == 0;
+        for (int i = 0; i < DIGITS; i++) {
+            int digit = valueOf(content.charAt(offset + i));
+            if (digit < 0) {
+                return NOT_FOUND;
+            }
+            id = (id << 5) | digit;
+            sum += luhnAddend(digit, doubled);
+            doubled = !doubled;
+        }
+        int check = valueOf(content.charAt(offset + DIGITS));
+        if (check < 0 || (sum + check) % BASE != 0) {
+            return NOT_FOUND;
+        }
+        return id;
+    }
+
+    private static int luhnAddend(int digit, boolean doubled) {
+        if (!doubled) {
+            return digit;
+        }
+        int addend = digit * 2;
+        return addend / BASE + addend % BASE;
+    }
+
+    private static int valueOf(char c) {
+        return c < VALUES.length ? VALUES[c] : -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // So khớp không phân biệt hoa thường; token luôn là chữ in hoa ASCII
+    private static boolean matchesIgnoreCase(CharSequence content, int offset, String token) {
+        if (offset + token.length() > content.length()) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if ((content.charAt(offset + i) & ~0x20) != token.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
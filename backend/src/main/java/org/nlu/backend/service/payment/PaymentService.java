@@ -1,24 +1,28 @@
 package org.nlu.backend.service.payment;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.nlu.backend.dto.request.payment.BankWebhookRequest;
 import org.nlu.backend.entity.*;
-import org.nlu.backend.exception.AppException;
-import org.nlu.backend.exception.ErrorCode;
 import org.nlu.backend.repository.CourseEnrollmentRepository;
 import org.nlu.backend.repository.CourseRepository;
 import org.nlu.backend.repository.OrderRepository;
+import org.nlu.backend.repository.PaymentTransactionRepository;
 import org.nlu.backend.repository.UserRepository;
+import org.nlu.backend.service.course.CourseCounterBuffer;
+import org.nlu.backend.service.enrollment.EntitlementCache;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashSet;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -29,81 +33,153 @@ public class PaymentService implements IPaymentService {
     UserRepository userRepository;
     OrderRepository orderRepository;
     CourseEnrollmentRepository courseEnrollmentRepository;
+    PaymentTransactionRepository paymentTransactionRepository;
+    PaymentStatusNotifier paymentStatusNotifier;
+    EntitlementCache entitlementCache;
+    CourseCounterBuffer courseCounterBuffer;
 
-    private static final Pattern CONTENT_PATTERN = Pattern.compile("COURSE(\\d+)USER(\\d+)");
+    // Id các giao dịch vừa nhận, để các lần SePay gửi lại không cần truy vấn DB
+    Cache<Long, Boolean> acceptedTransactions = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
 
     @Override
-    @Transactional
     public boolean processBankWebhook(BankWebhookRequest request) {
         // Only process incoming transfers
-        if (!"in".equalsIgnoreCase(request.getTransferType())) {
+        if (!"in".equalsIgnoreCase(request.getTransferType()) || request.getId() == null) {
             return false;
         }
 
-        // Parse the content to extract course ID and user ID
-        Matcher matcher = CONTENT_PATTERN.matcher(request.getContent());
-        if (!matcher.find()) {
-            return false;
+        // SePay gửi lại cùng một giao dịch khi chưa nhận được phản hồi: giao dịch đã nằm trong inbox
+        if (acceptedTransactions.getIfPresent(request.getId()) != null) {
+            return true;
         }
 
+        // Chỉ ghi vào inbox rồi trả lời ngay; PaymentInboxWorker tạo order và ghi danh sau
         try {
-            Long courseId = Long.parseLong(matcher.group(1));
-            Long userId = Long.parseLong(matcher.group(2));
+            paymentTransactionRepository.saveAndFlush(PaymentTransaction.builder()
+                    .id(request.getId())
+                    .content(request.getContent())
+                    .transferAmount(request.getTransferAmount())
+                    .nextAttemptAt(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Trùng khóa chính: lần gửi trước (hoặc đồng thời) đã ghi nhận giao dịch này.
+            // Lỗi dữ liệu khác (vd. số tiền vượt precision) cũng là ngoại lệ này: dòng không có trong inbox
+            // thì phải báo lỗi để SePay gửi lại, không được xác nhận rồi làm mất giao dịch
+            if (!paymentTransactionRepository.existsById(request.getId())) {
+                throw e;
+            }
+        }
+        acceptedTransactions.put(request.getId(), Boolean.TRUE);
+        return true;
+    }
 
-            // Fetch the course and user
-            Course course = courseRepository.findById(courseId)
-                    .orElseThrow(() -> new AppException(ErrorCode.COURSE_NOT_FOUND));
+    /**
+     * Xử lý một giao dịch đã được worker giữ (PROCESSING): tạo order, ghi danh và lưu kết quả.
+     * Phải chạy trong transaction của worker để giao dịch và enrollment được ghi cùng lúc.
+     *
+     * @return the transaction, or null if it is no longer claimed
+     */
+    PaymentTransaction fulfill(Long transactionId) {
+        PaymentTransaction transaction = paymentTransactionRepository.findById(transactionId)
+                .filter(t -> t.getStatus() == PaymentTransaction.Status.PROCESSING)
+                .orElse(null);
+        if (transaction == null) {
+            return null;
+        }
 
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND));
+        Order order = processTransfer(transaction.getContent(), transaction.getTransferAmount());
+        transaction.setOrder(order);
+        transaction.setSuccess(order != null);
+        transaction.setStatus(PaymentTransaction.Status.PROCESSED);
+        transaction.setProcessedAt(LocalDateTime.now());
+        transaction.setNextAttemptAt(null);
+        transaction.setLastError(null);
+        return transaction;
+    }
 
-            // Check if the user is already enrolled in the course
-            if (courseEnrollmentRepository.existsByUserIdAndCourseId(userId, courseId)) {
-                return false; // Already enrolled, don't process again
-            }
+    private Order processTransfer(String content, BigDecimal transferAmount) {
+        // Đơn tạo qua checkout: giá đã chốt trên đơn, không cần đọc lại Course
+        long orderId = PaymentReferenceCodec.decode(content);
+        if (orderId != PaymentReferenceCodec.NOT_FOUND) {
+            return completePendingOrder(orderId, transferAmount);
+        }
 
-            // Check if the payment amount is sufficient
-            if (course.getDiscountPrice() != null && 
-                request.getTransferAmount().compareTo(course.getDiscountPrice()) >= 0) {
-                // Create order
-                Order order = createOrder(user, course, request);
-                
-                // Create order detail
-                OrderDetail orderDetail = createOrderDetail(order, course);
-                
-                // Create course enrollment
-                createCourseEnrollment(user, course, order);
-                
-                return true;
-            } else if (course.getDiscountPrice() == null && 
-                       request.getTransferAmount().compareTo(course.getPrice()) >= 0) {
-                // Create order
-                Order order = createOrder(user, course, request);
-                
-                // Create order detail
-                OrderDetail orderDetail = createOrderDetail(order, course);
-                
-                // Create course enrollment
-                createCourseEnrollment(user, course, order);
-                
-                return true;
-            }
-        } catch (Exception e) {
-            // Log the exception
-            e.printStackTrace();
-            return false;
+        // Nội dung kiểu cũ COURSE<id>USER<id>: tạo đơn mới theo giá hiện tại của khóa học
+        PaymentReferenceCodec.LegacyReference reference = PaymentReferenceCodec.decodeLegacy(content);
+        if (reference == null) {
+            return null;
+        }
+
+        Long courseId = reference.courseId();
+        Long userId = reference.userId();
+
+        // Fetch the course and user
+        Optional<Course> course = courseRepository.findById(courseId);
+        Optional<User> user = userRepository.findById(userId);
+        if (course.isEmpty() || user.isEmpty()) {
+            return null;
+        }
+
+        // Check if the user is already enrolled in the course
+        if (entitlementCache.confirmOwns(userId, courseId)) {
+            return null; // Already enrolled, don't process again
         }
 
-        return false;
+        // Check if the payment amount is sufficient
+        BigDecimal amount = course.get().getDiscountPrice() != null
+                ? course.get().getDiscountPrice()
+                : course.get().getPrice();
+        if (transferAmount == null || transferAmount.compareTo(amount) < 0) {
+            return null;
+        }
+
+        Order order = createOrder(user.get(), course.get());
+        createOrderDetail(order, course.get());
+        createCourseEnrollment(user.get(), course.get(), order);
+        return order;
+    }
+
+    // Một truy vấn theo khóa chính để đọc đơn, một UPDATE có điều kiện để chuyển PENDING/CANCELLED -> COMPLETED
+    private Order completePendingOrder(long orderId, BigDecimal transferAmount) {
+        Optional<PendingOrderPayment> pending = orderRepository.findPayableOrder(orderId);
+        if (pending.isEmpty() || transferAmount == null || transferAmount.compareTo(pending.get().amount()) < 0) {
+            return null;
+        }
+        PendingOrderPayment payment = pending.get();
+        if (entitlementCache.confirmOwns(payment.userId(), payment.courseId())
+                || orderRepository.markPaid(orderId) == 0) {
+            return null;
+        }
+
+        Order order = orderRepository.getReferenceById(orderId);
+        createCourseEnrollment(
+                userRepository.getReferenceById(payment.userId()),
+                courseRepository.getReferenceById(payment.courseId()),
+                order);
+        return order;
     }
-    
+
     @Override
     public boolean checkPaymentStatus(Long userId, Long courseId) {
         // Check if the user is enrolled in the course
-        return courseEnrollmentRepository.existsByUserIdAndCourseId(userId, courseId);
+        // Trang thanh toán hỏi lặp lại: chỉ đọc cache, enrollment mới được thêm ngay khi commit và SSE báo kết quả
+        return entitlementCache.owns(userId, courseId);
     }
 
-    private Order createOrder(User user, Course course, BankWebhookRequest request) {
+    @Override
+    public SseEmitter subscribePaymentStatus(Long userId, Long courseId) {
+        SseEmitter emitter = paymentStatusNotifier.subscribe(userId, courseId);
+        // Đăng ký trước rồi mới kiểm tra, để không bỏ lỡ enrollment được tạo giữa hai bước
+        if (entitlementCache.owns(userId, courseId)) {
+            paymentStatusNotifier.paid(userId, courseId);
+        }
+        return emitter;
+    }
+
+    private Order createOrder(User user, Course course) {
         Order order = Order.builder()
                 .user(user)
                 .totalAmount(course.getDiscountPrice() != null ? course.getDiscountPrice() : course.getPrice())
@@ -136,9 +212,11 @@ public class PaymentService implements IPaymentService {
                 .order(order)
                 .enrollmentDate(LocalDateTime.now())
                 .build();
-        
-        order.getEnrollments().add(enrollment);
-        
-        return courseEnrollmentRepository.save(enrollment);
+
+        enrollment = courseEnrollmentRepository.save(enrollment);
+        courseCounterBuffer.recordEnrollmentAfterCommit(course.getId());
+        entitlementCache.grantAfterCommit(user.getId(), course.getId());
+        paymentStatusNotifier.paidAfterCommit(user.getId(), course.getId());
+        return enrollment;
     }
 }
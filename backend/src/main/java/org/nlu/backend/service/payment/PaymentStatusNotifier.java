@@ -0,0 +1,116 @@
+package org.nlu.backend.service.payment;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.nlu.backend.exception.AppException;
+import org.nlu.backend.exception.ErrorCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Danh sách các client đang chờ kết quả chuyển khoản (SSE), theo cặp (userId, courseId).
+ * <p>
+ * Client chờ không tốn truy vấn DB: luồng xử lý webhook báo {@link #paid} khi tạo enrollment.
+ * Số kết nối bị giới hạn và mỗi kết nối tự đóng sau thời gian chờ; trình duyệt (EventSource)
+ * sẽ tự kết nối lại và được kiểm tra trạng thái một lần khi đăng ký.
+ * Registry nằm trong bộ nhớ của từng instance.
+ */
+@Component
+@Slf4j
+public class PaymentStatusNotifier {
+
+    static final String EVENT_NAME = "payment-status";
+
+    private record Subscription(Long userId, Long courseId) {
+    }
+
+    private final Map<Subscription, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptionCount = new AtomicInteger();
+    private final int maxSubscriptions;
+    private final long timeoutMillis;
+
+    public PaymentStatusNotifier(MeterRegistry meterRegistry,
+                                 @Value("${payment.status-stream.max-subscriptions:10000}") int maxSubscriptions,
+                                 @Value("${payment.status-stream.timeout-seconds:120}") long timeoutSeconds) {
+        this.maxSubscriptions = maxSubscriptions;
+        this.timeoutMillis = Duration.ofSeconds(timeoutSeconds).toMillis();
+        Gauge.builder("payment.status.subscriptions", subscriptionCount, AtomicInteger::get)
+                .description("Client đang chờ kết quả thanh toán qua SSE")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId, Long courseId) {
+        if (subscriptionCount.incrementAndGet() > maxSubscriptions) {
+            subscriptionCount.decrementAndGet();
+            throw new AppException(ErrorCode.TOO_MANY_SUBSCRIPTIONS);
+        }
+
+        Subscription subscription = new Subscription(userId, courseId);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribers.computeIfAbsent(subscription, key -> ConcurrentHashMap.newKeySet()).add(emitter);
+
+        emitter.onCompletion(() -> unsubscribe(subscription, emitter));
+        emitter.onError(error -> unsubscribe(subscription, emitter));
+        emitter.onTimeout(() -> {
+            unsubscribe(subscription, emitter);
+            emitter.complete();
+        });
+        return emitter;
+    }
+
+    /**
+     * Báo cho các client đang chờ rằng học viên đã được ghi danh, rồi đóng kết nối của họ.
+     */
+    public void paid(Long userId, Long courseId) {
+        Set<SseEmitter> emitters = subscribers.remove(new Subscription(userId, courseId));
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            subscriptionCount.decrementAndGet();
+            try {
+                emitter.send(SseEmitter.event().name(EVENT_NAME).data(Boolean.TRUE));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // Client đã ngắt kết nối
+                log.debug("Could not notify payment status for user {} course {}", userId, courseId, e);
+            }
+        }
+    }
+
+    /**
+     * Như {@link #paid} nhưng chỉ gửi khi transaction hiện tại commit, để client không đọc thấy trạng thái chưa ghi.
+     */
+    public void paidAfterCommit(Long userId, Long courseId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            paid(userId, courseId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                paid(userId, courseId);
+            }
+        });
+    }
+
+    private void unsubscribe(Subscription subscription, SseEmitter emitter) {
+        subscribers.computeIfPresent(subscription, (key, emitters) -> {
+            if (emitters.remove(emitter)) {
+                subscriptionCount.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
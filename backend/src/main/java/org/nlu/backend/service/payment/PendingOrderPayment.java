@@ -0,0 +1,9 @@
+package org.nlu.backend.service.payment;
+
+import java.math.BigDecimal;
+
+/**
+ * Dữ liệu tối thiểu của một đơn PENDING cần để xác nhận thanh toán, đọc bằng một truy vấn theo khóa chính.
+ */
+public record PendingOrderPayment(Long orderId, Long userId, Long courseId, BigDecimal amount) {
+}
@@ -0,0 +1,15 @@
+package org.nlu.backend.service.progress;
+
+import org.nlu.backend.dto.request.enrollment.LessonProgressEventRequest;
+
+public interface ILessonProgressService {
+    /**
+     * Ghi nhận heartbeat / hoàn thành bài học của người dùng hiện tại (ghi xuống DB bất đồng bộ).
+     */
+    void recordProgress(LessonProgressEventRequest request);
+
+    /**
+     * Gỡ tiến độ của bài học bị xóa và trừ bộ đếm bài đã hoàn thành của các học viên liên quan.
+     */
+    void lessonDeleted(Long courseId, Long lessonId);
+}
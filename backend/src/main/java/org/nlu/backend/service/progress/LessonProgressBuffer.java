@@ -0,0 +1,257 @@
+package org.nlu.backend.service.progress;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bộ đệm ghi sau (write-behind) cho sự kiện tiến độ bài học.
+ * <p>
+ * Heartbeat và sự kiện hoàn thành của cùng (học viên, bài học) được gộp trong bộ nhớ: vị trí xem lấy giá trị lớn nhất,
+ * thời điểm hoàn thành giữ lần đầu. Định kỳ (hoặc khi bộ đệm đầy) các mục được ghi xuống {@code lesson_progress}
+ * theo lô JDBC, và {@code course_enrollments.completed_lessons} được cộng thêm số bài vừa chuyển sang hoàn thành,
+ * nên đọc tiến độ không cần đếm dòng.
+ * <p>
+ * Mục chưa ghi nằm trong bộ nhớ của instance: nếu tiến trình dừng đột ngột có thể mất tối đa một chu kỳ flush
+ * (khi tắt bình thường bộ đệm được flush). Lô ghi lỗi được đưa trở lại bộ đệm để thử ở lần sau.
+ */
+@Component
+@Slf4j
+public class LessonProgressBuffer {
+
+    static final int CHUNK_SIZE = 500;
+
+    // Chỉ chèn khi bài học còn tồn tại: mục đến từ trước khi bài bị xoá không tạo lại dòng mồ côi
+    private static final String INSERT_SQL = "INSERT INTO lesson_progress " +
+            "(user_id, lesson_id, course_id, position_seconds, completed_at, last_viewed_at) " +
+            "SELECT ?, ?, ?, ?, ?, ? FROM lessons WHERE id = ?";
+    private static final String UPDATE_POSITION_SQL = "UPDATE lesson_progress " +
+            "SET position_seconds = GREATEST(position_seconds, ?), last_viewed_at = ? WHERE user_id = ? AND lesson_id = ?";
+    // Chỉ khớp khi bài học chưa hoàn thành, nên số dòng cập nhật cho biết có cần cộng bộ đếm hay không
+    private static final String COMPLETE_SQL = "UPDATE lesson_progress " +
+            "SET completed_at = ? WHERE user_id = ? AND lesson_id = ? AND completed_at IS NULL";
+    private static final String INCREMENT_COMPLETED_SQL = "UPDATE course_enrollments " +
+            "SET completed_lessons = COALESCE(completed_lessons, 0) + ? WHERE user_id = ? AND course_id = ?";
+
+    record Key(Long userId, Long lessonId) {
+    }
+
+    record Pending(Long courseId, int positionSeconds, LocalDateTime completedAt, LocalDateTime lastViewedAt) {
+        Pending merge(Pending other) {
+            return new Pending(courseId,
+                    Math.max(positionSeconds, other.positionSeconds),
+                    completedAt != null ? completedAt : other.completedAt,
+                    lastViewedAt.isAfter(other.lastViewedAt) ? lastViewedAt : other.lastViewedAt);
+        }
+    }
+
+    private record EnrollmentKey(Long userId, Long courseId) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBufferedEntries;
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter eventCounter;
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+    private final DistributionSummary rowsPerFlush;
+    private final Timer flushTimer;
+
+    public LessonProgressBuffer(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${progress.buffer.max-entries:10000}") int maxBufferedEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBufferedEntries = maxBufferedEntries;
+        Gauge.builder("progress.buffer.size", pending, Map::size)
+                .description("Mục tiến độ đang chờ ghi xuống DB")
+                .register(meterRegistry);
+        this.eventCounter = meterRegistry.counter("progress.events");
+        this.flushedCounter = meterRegistry.counter("progress.flush.rows");
+        this.failedCounter = meterRegistry.counter("progress.flush.failed_rows");
+        this.rowsPerFlush = DistributionSummary.builder("progress.flush.batch")
+                .description("Số mục được ghi mỗi lần flush (sau khi gộp)")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("progress.flush.duration").register(meterRegistry);
+    }
+
+    public void record(Long userId, Long lessonId, Long courseId, int positionSeconds, boolean completed) {
+        LocalDateTime now = LocalDateTime.now();
+        pending.merge(new Key(userId, lessonId),
+                new Pending(courseId, Math.max(positionSeconds, 0), completed ? now : null, now),
+                Pending::merge);
+        eventCounter.increment();
+        // Bộ đệm đầy (DB chậm hoặc lưu lượng đột biến): luồng request tự flush thay vì để bộ nhớ tăng mãi
+        if (pending.size() >= maxBufferedEntries && flushLock.tryLock()) {
+            try {
+                flushTimer.record(this::drainAndWrite);
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${progress.flush-interval-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushTimer.record(this::drainAndWrite);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Bỏ các mục đang chờ của bài học vừa bị xoá để lần flush sau không ghi lại tiến độ cho nó.
+     */
+    public void discardLesson(Long lessonId) {
+        pending.keySet().removeIf(key -> key.lessonId().equals(lessonId));
+    }
+
+    int drainAndWrite() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        // Lấy từng mục ra khỏi map: sự kiện đến trong lúc ghi sẽ tạo mục mới cho lần flush sau
+        List<Map.Entry<Key, Pending>> drained = new ArrayList<>(pending.size());
+        for (Key key : pending.keySet()) {
+            Pending value = pending.remove(key);
+            if (value != null) {
+                drained.add(Map.entry(key, value));
+            }
+        }
+
+        int written = 0;
+        for (int from = 0; from < drained.size(); from += CHUNK_SIZE) {
+            List<Map.Entry<Key, Pending>> chunk = drained.subList(from, Math.min(from + CHUNK_SIZE, drained.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(chunk));
+                written += chunk.size();
+            } catch (DataAccessException | TransactionException e) {
+                // Gồm cả lỗi mở/commit transaction (CannotCreateTransactionException, TransactionSystemException)
+                log.warn("Could not write {} lesson progress entries, keeping them for the next flush", chunk.size(), e);
+                chunk.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(), Pending::merge));
+                failedCounter.increment(chunk.size());
+            }
+        }
+        flushedCounter.increment(written);
+        rowsPerFlush.record(written);
+        return written;
+    }
+
+    private void write(List<Map.Entry<Key, Pending>> chunk) {
+        Map<Key, Boolean> existing = findExisting(chunk);
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<EnrollmentKey> insertCompletionOwners = new ArrayList<>();
+        List<Object[]> positionUpdates = new ArrayList<>();
+        List<Object[]> completions = new ArrayList<>();
+        List<EnrollmentKey> completionOwners = new ArrayList<>();
+        Map<EnrollmentKey, Integer> newlyCompleted = new HashMap<>();
+
+        for (Map.Entry<Key, Pending> entry : chunk) {
+            Key key = entry.getKey();
+            Pending value = entry.getValue();
+            EnrollmentKey enrollment = new EnrollmentKey(key.userId(), value.courseId());
+            Boolean completed = existing.get(key);
+            if (completed == null) {
+                inserts.add(new Object[]{key.userId(), key.lessonId(), value.courseId(), value.positionSeconds(),
+                        timestamp(value.completedAt()), timestamp(value.lastViewedAt()), key.lessonId()});
+                insertCompletionOwners.add(value.completedAt() != null ? enrollment : null);
+            } else {
+                positionUpdates.add(new Object[]{value.positionSeconds(), timestamp(value.lastViewedAt()),
+                        key.userId(), key.lessonId()});
+                if (value.completedAt() != null && !completed) {
+                    completions.add(new Object[]{timestamp(value.completedAt()), key.userId(), key.lessonId()});
+                    completionOwners.add(enrollment);
+                }
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            for (int i = 0; i < counts.length; i++) {
+                // 0 dòng: bài học đã bị xoá, không cộng vào completed_lessons
+                EnrollmentKey owner = insertCompletionOwners.get(i);
+                if (owner != null && (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO)) {
+                    newlyCompleted.merge(owner, 1, Integer::sum);
+                }
+            }
+        }
+        if (!positionUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_POSITION_SQL, positionUpdates);
+        }
+        if (!completions.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(COMPLETE_SQL, completions);
+            for (int i = 0; i < counts.length; i++) {
+                // SUCCESS_NO_INFO: driver không trả số dòng, dựa vào trạng thái vừa đọc
+                if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                    newlyCompleted.merge(completionOwners.get(i), 1, Integer::sum);
+                }
+            }
+        }
+        if (!newlyCompleted.isEmpty()) {
+            List<Object[]> increments = new ArrayList<>(newlyCompleted.size());
+            newlyCompleted.forEach((enrollment, count) ->
+                    increments.add(new Object[]{count, enrollment.userId(), enrollment.courseId()}));
+            jdbcTemplate.batchUpdate(INCREMENT_COMPLETED_SQL, increments);
+        }
+    }
+
+    // (user, lesson) đã có dòng -> đã hoàn thành chưa; một truy vấn cho cả lô
+    private Map<Key, Boolean> findExisting(List<Map.Entry<Key, Pending>> chunk) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        Set<Long> lessonIds = new LinkedHashSet<>();
+        for (Map.Entry<Key, Pending> entry : chunk) {
+            userIds.add(entry.getKey().userId());
+            lessonIds.add(entry.getKey().lessonId());
+        }
+        String sql = "SELECT user_id, lesson_id, completed_at FROM lesson_progress WHERE user_id IN ("
+                + placeholders(userIds.size()) + ") AND lesson_id IN (" + placeholders(lessonIds.size()) + ")";
+        List<Object> args = new ArrayList<>(userIds);
+        args.addAll(lessonIds);
+
+        Map<Key, Boolean> existing = new HashMap<>();
+        jdbcTemplate.query(sql, resultSet -> {
+            existing.put(new Key(resultSet.getLong("user_id"), resultSet.getLong("lesson_id")),
+                    resultSet.getTimestamp("completed_at") != null);
+        }, args.toArray());
+        return existing;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return time == null ? null : Timestamp.valueOf(time);
+    }
+}
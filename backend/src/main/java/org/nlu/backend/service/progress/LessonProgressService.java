@@ -0,0 +1,73 @@
+package org.nlu.backend.service.progress;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.nlu.backend.configuration.AuthenticatedUser;
+import org.nlu.backend.dto.request.enrollment.LessonProgressEventRequest;
+import org.nlu.backend.exception.AppException;
+import org.nlu.backend.exception.ErrorCode;
+import org.nlu.backend.repository.CourseEnrollmentRepository;
+import org.nlu.backend.repository.LessonProgressRepository;
+import org.nlu.backend.repository.LessonRepository;
+import org.nlu.backend.service.enrollment.EntitlementCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+@Service
+public class LessonProgressService implements ILessonProgressService {
+
+    private final LessonRepository lessonRepository;
+    private final CourseEnrollmentRepository enrollmentRepository;
+    private final LessonProgressRepository lessonProgressRepository;
+    private final LessonProgressBuffer lessonProgressBuffer;
+    private final EntitlementCache entitlementCache;
+
+    // Heartbeat đến vài giây một lần: bài học -> khóa học được nhớ lại, quyền học đọc từ EntitlementCache
+    private final Cache<Long, Long> lessonCourses = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterWrite(Duration.ofMinutes(30))
+            .build();
+
+    public LessonProgressService(LessonRepository lessonRepository,
+                                 CourseEnrollmentRepository enrollmentRepository,
+                                 LessonProgressRepository lessonProgressRepository,
+                                 LessonProgressBuffer lessonProgressBuffer,
+                                 EntitlementCache entitlementCache) {
+        this.lessonRepository = lessonRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.lessonProgressRepository = lessonProgressRepository;
+        this.lessonProgressBuffer = lessonProgressBuffer;
+        this.entitlementCache = entitlementCache;
+    }
+
+    @Override
+    public void recordProgress(LessonProgressEventRequest request) {
+        Long userId = AuthenticatedUser.current().userId();
+        if (request.getLessonId() == null) {
+            throw new AppException(ErrorCode.LESSON_NOT_FOUND);
+        }
+        Long courseId = lessonCourses.get(request.getLessonId(),
+                lessonId -> lessonRepository.findCourseIdById(lessonId).orElse(null));
+        if (courseId == null) {
+            throw new AppException(ErrorCode.LESSON_NOT_FOUND);
+        }
+
+        if (!entitlementCache.confirmOwns(userId, courseId)) {
+            throw new AppException(ErrorCode.NOT_ENROLLED);
+        }
+
+        lessonProgressBuffer.record(userId, request.getLessonId(), courseId,
+                request.getPositionSeconds(), request.isCompleted());
+    }
+
+    @Override
+    @Transactional
+    public void lessonDeleted(Long courseId, Long lessonId) {
+        lessonCourses.invalidate(lessonId);
+        lessonProgressBuffer.discardLesson(lessonId);
+        enrollmentRepository.decrementCompletedLessons(courseId, lessonId);
+        lessonProgressRepository.deleteByLessonId(lessonId);
+    }
+}
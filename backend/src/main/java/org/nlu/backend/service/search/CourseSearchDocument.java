@@ -0,0 +1,5 @@
+package org.nlu.backend.service.search;
+
+// Các trường văn bản của một khóa học được đưa vào chỉ mục tìm kiếm
+public record CourseSearchDocument(Long id, String title, String description, String categoryName, String levelName) {
+}
@@ -0,0 +1,334 @@
+package org.nlu.backend.service.search;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import org.nlu.backend.repository.CourseRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over course title, description, category and level names,
+ * ranked with BM25. Title and category/level terms are weighted higher than description terms.
+ * The last query term is matched as a prefix so results follow the user while typing.
+ * <p>
+ * Each instance keeps its own copy. Writes made through this instance refresh it right away; changes made
+ * by other instances are picked up by {@link #refreshChanged()}, which re-reads courses whose
+ * {@code updated_at} moved since the last pass and drops courses that no longer exist. Renaming a
+ * category or level does not touch {@code updated_at} and only shows up after the next rebuild.
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class CourseSearchIndex {
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    static final int TITLE_WEIGHT = 3;
+    static final int NAME_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+    static final int REBUILD_BATCH_SIZE = 1000;
+    // Lùi mốc thời gian một chút để không sót khóa học commit muộn hơn thời điểm updated_at của nó
+    static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    CourseRepository courseRepository;
+
+    ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Dữ liệu chỉ mục hiện tại; rebuild dựng một bản mới không giữ khóa rồi thay vào dưới write lock
+    @NonFinal
+    InvertedIndex index = new InvertedIndex();
+
+    // Id được refresh/gỡ trong lúc rebuild đang đọc DB, đọc lại sau khi thay bản mới; null khi không rebuild
+    @NonFinal
+    Set<Long> touchedDuringRebuild;
+
+    // Thời điểm bắt đầu của lần rebuild/làm mới gần nhất; null khi chỉ mục chưa được dựng
+    @NonFinal
+    volatile LocalDateTime refreshedAt;
+
+    /**
+     * Rebuild the whole index from the database, reading courses in id-ordered batches.
+     * Searches keep using the current index while the batches are read; the write lock is only held to swap it.
+     */
+    public synchronized void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        InvertedIndex rebuilt = null;
+        Set<Long> touched;
+        try {
+            rebuilt = readAllDocuments();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                touched = touchedDuringRebuild;
+                touchedDuringRebuild = null;
+                if (rebuilt != null) {
+                    index = rebuilt;
+                    refreshedAt = startedAt;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        // Bản mới có thể đã đọc các khóa học này trước khi chúng thay đổi
+        refreshInBatches(new ArrayList<>(touched));
+        log.info("Course search index rebuilt with {} documents", rebuilt.documents.size());
+    }
+
+    private InvertedIndex readAllDocuments() {
+        InvertedIndex rebuilt = new InvertedIndex();
+        long afterId = 0L;
+        List<CourseSearchDocument> batch;
+        do {
+            batch = courseRepository.findSearchDocuments(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (CourseSearchDocument document : batch) {
+                rebuilt.add(document);
+                afterId = document.id();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        return rebuilt;
+    }
+
+    /**
+     * Re-read one course from the database and replace its entry (or drop it if the course is gone).
+     */
+    public void refresh(Long courseId) {
+        Optional<CourseSearchDocument> document = courseRepository.findSearchDocumentById(courseId);
+        lock.writeLock().lock();
+        try {
+            markTouched(courseId);
+            index.remove(courseId);
+            document.ifPresent(index::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Same as {@link #refresh(Long)} for many courses at once, reading them in one query.
+     */
+    public void refresh(Collection<Long> courseIds) {
+        if (courseIds.isEmpty()) {
+            return;
+        }
+        List<CourseSearchDocument> documents = courseRepository.findSearchDocumentsByIds(courseIds);
+        lock.writeLock().lock();
+        try {
+            courseIds.forEach(this::markTouched);
+            courseIds.forEach(index::remove);
+            documents.forEach(index::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-read courses changed since the previous pass and drop courses deleted elsewhere.
+     * Does nothing until the index has been built once.
+     */
+    @Scheduled(fixedDelayString = "${search.index.refresh-interval-ms:60000}",
+            initialDelayString = "${search.index.refresh-interval-ms:60000}")
+    public void refreshChanged() {
+        LocalDateTime since = refreshedAt;
+        if (since == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<Long> changed = courseRepository.findIdsUpdatedSince(since.minus(REFRESH_OVERLAP));
+        refreshInBatches(changed);
+
+        List<Long> indexedIds;
+        lock.readLock().lock();
+        try {
+            indexedIds = new ArrayList<>(index.documents.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+        int removed = 0;
+        for (int from = 0; from < indexedIds.size(); from += REBUILD_BATCH_SIZE) {
+            List<Long> batch = indexedIds.subList(from, Math.min(from + REBUILD_BATCH_SIZE, indexedIds.size()));
+            Set<Long> missing = new HashSet<>(batch);
+            courseRepository.findExistingIds(batch).forEach(missing::remove);
+            if (!missing.isEmpty()) {
+                removed += missing.size();
+                lock.writeLock().lock();
+                try {
+                    missing.forEach(this::markTouched);
+                    missing.forEach(index::remove);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+        refreshedAt = startedAt;
+        if (!changed.isEmpty() || removed > 0) {
+            log.debug("Course search index refreshed {} changed and removed {} deleted documents", changed.size(), removed);
+        }
+    }
+
+    private void refreshInBatches(List<Long> courseIds) {
+        for (int from = 0; from < courseIds.size(); from += REBUILD_BATCH_SIZE) {
+            refresh(courseIds.subList(from, Math.min(from + REBUILD_BATCH_SIZE, courseIds.size())));
+        }
+    }
+
+    /**
+     * {@link #refresh(Collection)} once the current transaction commits (immediately when there is none),
+     * so a rolled-back write never reaches the index.
+     */
+    public void refreshAfterCommit(Collection<Long> courseIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(courseIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh(courseIds);
+            }
+        });
+    }
+
+    public void remove(Long courseId) {
+        lock.writeLock().lock();
+        try {
+            markTouched(courseId);
+            index.remove(courseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return course IDs ordered by descending BM25 score, at most {@code limit} of them
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = TextAnalyzer.tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            InvertedIndex current = index;
+            int documentCount = current.documents.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double averageLength = (double) current.totalLength / documentCount;
+
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                if (i == terms.size() - 1) {
+                    for (Map<Long, Integer> posting : current.postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                        score(current, posting, documentCount, averageLength, scores);
+                    }
+                } else {
+                    Map<Long, Integer> posting = current.postings.get(term);
+                    if (posting != null) {
+                        score(current, posting, documentCount, averageLength, scores);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static void score(InvertedIndex index, Map<Long, Integer> posting, int documentCount,
+                              double averageLength, Map<Long, Double> scores) {
+        int documentFrequency = posting.size();
+        double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+            int termFrequency = entry.getValue();
+            int length = index.documentLengths.get(entry.getKey());
+            double norm = termFrequency + K1 * (1 - B + B * length / averageLength);
+            scores.merge(entry.getKey(), idf * termFrequency * (K1 + 1) / norm, Double::sum);
+        }
+    }
+
+    // Gọi khi đã giữ write lock
+    private void markTouched(Long courseId) {
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.add(courseId);
+        }
+    }
+
+    private static void addField(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : TextAnalyzer.tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    /**
+     * Postings and document statistics of one index generation. Not thread-safe: the live instance is only
+     * touched under the index lock, a fresh one only by the thread rebuilding it.
+     */
+    private static final class InvertedIndex {
+        // term -> (courseId -> weighted term frequency)
+        final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        // courseId -> term frequencies của document (dùng để gỡ bỏ và tính độ dài)
+        final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+        final Map<Long, Integer> documentLengths = new HashMap<>();
+        long totalLength;
+
+        void add(CourseSearchDocument document) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            addField(frequencies, document.title(), TITLE_WEIGHT);
+            addField(frequencies, document.categoryName(), NAME_WEIGHT);
+            addField(frequencies, document.levelName(), NAME_WEIGHT);
+            addField(frequencies, document.description(), DESCRIPTION_WEIGHT);
+
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(document.id(), entry.getValue());
+                length += entry.getValue();
+            }
+            documents.put(document.id(), frequencies);
+            documentLengths.put(document.id(), length);
+            totalLength += length;
+        }
+
+        void remove(Long courseId) {
+            Map<String, Integer> frequencies = documents.remove(courseId);
+            if (frequencies == null) {
+                return;
+            }
+            for (String term : frequencies.keySet()) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(courseId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            totalLength -= documentLengths.remove(courseId);
+        }
+    }
+}
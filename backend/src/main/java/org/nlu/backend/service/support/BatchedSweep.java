@@ -0,0 +1,39 @@
+package org.nlu.backend.service.support;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Vòng lặp dọn dẹp theo lô dùng chung cho các job định kỳ (hủy đơn PENDING quá hạn, xóa JTI hết hạn...).
+ * <p>
+ * Mỗi lô chạy trong một transaction riêng để không giữ khóa lâu trên bảng đang được ghi. Vòng lặp dừng khi
+ * một lô xử lý ít hơn {@code batchSize} dòng (đã hết việc) hoặc khi đủ {@code maxBatches} lô, phần còn lại
+ * để lần chạy sau.
+ */
+public final class BatchedSweep {
+
+    private BatchedSweep() {
+    }
+
+    /**
+     * @param batch nhận số dòng tối đa của lô, xử lý trong transaction đang mở và trả về số dòng đã xử lý
+     * @param rowCounter được cộng số dòng của từng lô ngay khi lô đó commit
+     * @return tổng số dòng đã xử lý trong lần chạy
+     */
+    public static int run(TransactionTemplate transactionTemplate, int batchSize, int maxBatches,
+                          Counter rowCounter, IntUnaryOperator batch) {
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            Integer processed = transactionTemplate.execute(status -> batch.applyAsInt(batchSize));
+            int count = processed == null ? 0 : processed;
+            total += count;
+            rowCounter.increment(count);
+            if (count < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
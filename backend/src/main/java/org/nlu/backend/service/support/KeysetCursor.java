@@ -0,0 +1,61 @@
+package org.nlu.backend.service.support;
+
+import org.nlu.backend.exception.AppException;
+import org.nlu.backend.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset pagination: the sort value of the last row on the page plus its id.
+ * The client only sees a base64url token; its layout can change without breaking the API.
+ */
+public record KeysetCursor(String value, Long id) {
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return null for a missing/blank token (first page)
+     */
+    public static KeysetCursor parse(String token) {
+        return (token == null || token.isBlank()) ? null : decode(token);
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // Giá trị sắp xếp (vd. title) có thể chứa '|', id thì không
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new AppException(ErrorCode.INVALID_CURSOR);
+            }
+            return new KeysetCursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    // Cursor của các trang sắp theo thời điểm (created_at, enrollment_date...)
+    public LocalDateTime timeValue() {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    // Cursor theo vị trí (phân trang trên danh sách đã xếp hạng trong bộ nhớ)
+    public int intValue() {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new AppException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.nlu.backend.service.support;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. Queries fetch {@link #fetchLimit(int)} rows, one more than the page
+ * size, so {@link #of} can tell whether a next page exists without a COUNT query.
+ */
+public record KeysetPage<T>(List<T> items, String nextCursor, boolean hasNext) {
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    public static int sizeOf(Integer requested) {
+        return (requested == null || requested <= 0) ? DEFAULT_SIZE : Math.min(requested, MAX_SIZE);
+    }
+
+    // Lấy dư 1 bản ghi để biết còn trang sau hay không
+    public static Pageable fetchLimit(int pageSize) {
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    /**
+     * @param rows rows read with {@link #fetchLimit(int)}
+     * @param cursorOf cursor pointing after a row; only called for the last row of a page that has a successor
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int pageSize, Function<T, KeysetCursor> cursorOf) {
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null, false);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new KeysetPage<>(items, cursorOf.apply(items.get(items.size() - 1)).encode(), true);
+    }
+}
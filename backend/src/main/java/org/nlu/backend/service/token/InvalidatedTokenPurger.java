@@ -0,0 +1,72 @@
+package org.nlu.backend.service.token;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.nlu.backend.repository.InvalidatedTokenRepository;
+import org.nlu.backend.service.support.BatchedSweep;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Xóa các JTI đã hết hạn khỏi {@code invalidated_token}: token hết hạn đã bị bộ giải mã JWT từ chối,
+ * giữ lại dòng chỉ làm bảng phình ra theo mỗi lần logout.
+ * <p>
+ * Xóa theo lô nhỏ, mỗi lô một transaction, để không giữ khóa lâu trên bảng đang được logout ghi vào.
+ * Số dòng xóa được đếm qua {@code security.token.purged} (tốc độ xóa = rate của counter).
+ */
+@Component
+@Slf4j
+public class InvalidatedTokenPurger {
+
+    static final int MAX_BATCHES_PER_RUN = 100;
+
+    private final InvalidatedTokenRepository invalidatedTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final AtomicLong tableRows = new AtomicLong();
+    private final Counter purgedCounter;
+    private final Timer purgeTimer;
+
+    public InvalidatedTokenPurger(InvalidatedTokenRepository invalidatedTokenRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.token-revocation.purge-batch-size:1000}") int batchSize) {
+        this.invalidatedTokenRepository = invalidatedTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        Gauge.builder("security.token.invalidated.rows", tableRows, AtomicLong::get)
+                .description("Số dòng trong bảng invalidated_token sau lần xóa gần nhất")
+                .register(meterRegistry);
+        this.purgedCounter = meterRegistry.counter("security.token.purged");
+        this.purgeTimer = Timer.builder("security.token.purge.duration").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${security.token-revocation.purge-interval-ms:3600000}",
+            initialDelayString = "${security.token-revocation.purge-initial-delay-ms:60000}")
+    public void purge() {
+        int purged = purgeTimer.record(this::purgeExpired);
+        tableRows.set(invalidatedTokenRepository.count());
+        if (purged > 0) {
+            log.info("Purged {} expired invalidated tokens", purged);
+        }
+    }
+
+    int purgeExpired() {
+        Date now = new Date();
+        return BatchedSweep.run(transactionTemplate, batchSize, MAX_BATCHES_PER_RUN, purgedCounter, limit -> {
+            List<String> ids = invalidatedTokenRepository.findExpiredIds(now, PageRequest.of(0, limit));
+            return ids.isEmpty() ? 0 : invalidatedTokenRepository.deleteByIdIn(ids);
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package org.nlu.backend.service.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.nlu.backend.configuration.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+
+/**
+ * Kết quả xác thực của các JWT vừa dùng (Jwt đã giải mã, quyền, người dùng), để request tiếp theo
+ * với cùng token không phải kiểm chữ ký HS512, parse claim và tra user lại.
+ * <p>
+ * Khóa là SHA-256 của token nên cache không giữ token gốc. Mỗi mục hết hạn theo thời điểm sớm hơn giữa
+ * {@code exp} của token và TTL tối đa; token bị thu hồi được kiểm tra ở mỗi lần đọc (xem {@link #get}).
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    public static final String CACHE_NAME = "jwtAuthentication";
+
+    public record Entry(Jwt jwt, Collection<GrantedAuthority> authorities, AuthenticatedUser user) {
+    }
+
+    private final Cache<String, Entry> cache;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+
+    public JwtAuthenticationCache(TokenRevocationRegistry tokenRevocationRegistry,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.jwt-cache.maximum-size:10000}") long maximumSize,
+                                  @Value("${security.jwt-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        long maxTtlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return Math.min(maxTtlNanos, nanosUntilExpiry(entry.jwt()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public static String keyOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return mục còn hiệu lực, hoặc null nếu chưa có, đã hết hạn hoặc token đã bị thu hồi
+     */
+    public Entry get(String key) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        // Caffeine dọn mục hết hạn không đồng bộ với đồng hồ của request, nên kiểm tra lại exp ở đây
+        Instant expiresAt = entry.jwt().getExpiresAt();
+        if ((expiresAt != null && !expiresAt.isAfter(Instant.now()))
+                || tokenRevocationRegistry.isRevoked(entry.jwt().getId())) {
+            cache.invalidate(key);
+            return null;
+        }
+        return entry;
+    }
+
+    public void put(String key, Entry entry) {
+        cache.put(key, entry);
+    }
+
+    private static long nanosUntilExpiry(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+    }
+}
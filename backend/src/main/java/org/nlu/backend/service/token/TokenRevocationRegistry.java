@@ -0,0 +1,110 @@
+package org.nlu.backend.service.token;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.nlu.backend.entity.InvalidatedToken;
+import org.nlu.backend.repository.InvalidatedTokenRepository;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Danh sách JTI đã thu hồi (logout) giữ trong bộ nhớ, để mỗi request xác thực không phải truy vấn DB.
+ * <p>
+ * Kiểm tra đi qua một bloom filter trước: phần lớn token hợp lệ bị loại ngay sau vài phép băm;
+ * chỉ khi filter báo "có thể" mới tra tập chính xác. Dữ liệu được nạp từ {@code invalidated_token}
+ * khi khởi động, cập nhật ngay khi logout trên instance này, và định kỳ đọc phần mới từ DB
+ * để nhận các lần logout trên instance khác (trễ tối đa một chu kỳ refresh).
+ */
+@Component
+@Slf4j
+public class TokenRevocationRegistry implements InitializingBean {
+
+    static final double FALSE_POSITIVE_RATE = 0.01;
+    // Đọc lùi lại một khoảng để không bỏ sót dòng commit trễ hoặc lệch đồng hồ giữa các instance
+    static final Duration REFRESH_OVERLAP = Duration.ofSeconds(30);
+
+    private final InvalidatedTokenRepository invalidatedTokenRepository;
+    private final int expectedTokens;
+
+    // jti -> thời điểm hết hạn (epoch millis)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private volatile Date watermark = new Date(0);
+
+    public TokenRevocationRegistry(InvalidatedTokenRepository invalidatedTokenRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${security.token-revocation.expected-tokens:100000}") int expectedTokens) {
+        this.invalidatedTokenRepository = invalidatedTokenRepository;
+        this.expectedTokens = expectedTokens;
+        this.filter = BloomFilter.create(expectedTokens, FALSE_POSITIVE_RATE);
+        Gauge.builder("security.token.revoked", revoked, Map::size)
+                .description("Token đã thu hồi còn hạn đang giữ trong bộ nhớ")
+                .register(meterRegistry);
+    }
+
+    // Nạp trước khi web server nhận request, để không có khoảng hở chấp nhận token đã logout
+    @Override
+    public void afterPropertiesSet() {
+        Date now = new Date();
+        invalidatedTokenRepository.findByExpiryTimeAfter(now).forEach(this::add);
+        watermark = now;
+        log.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    public void revoke(String jti, Date expiryTime) {
+        add(jti, expiryTime);
+    }
+
+    /**
+     * Đọc các token bị thu hồi trên instance khác kể từ lần trước, đồng thời bỏ các token đã hết hạn
+     * (bộ giải mã JWT đã tự từ chối chúng).
+     */
+    @Scheduled(fixedDelayString = "${security.token-revocation.refresh-interval-ms:10000}")
+    public void refresh() {
+        Date now = new Date();
+        Date since = new Date(watermark.getTime() - REFRESH_OVERLAP.toMillis());
+        for (InvalidatedToken token : invalidatedTokenRepository.findByCreatedAtAfter(since)) {
+            add(token);
+        }
+        watermark = now;
+
+        int before = revoked.size();
+        revoked.values().removeIf(expiry -> expiry <= now.getTime());
+        int removed = before - revoked.size();
+        // Bloom filter không xóa được phần tử: dựng lại khi đã bỏ nhiều token hết hạn hoặc vượt sức chứa
+        if (removed > 0 && (removed * 10 >= before || before > expectedTokens)) {
+            rebuildFilter();
+        }
+    }
+
+    private void add(InvalidatedToken token) {
+        add(token.getId(), token.getExpiryTime());
+    }
+
+    private synchronized void add(String jti, Date expiryTime) {
+        revoked.put(jti, expiryTime == null ? Long.MAX_VALUE : expiryTime.getTime());
+        filter.put(jti);
+    }
+
+    // Cùng khóa với add: token thu hồi trong lúc dựng lại không bị rơi khỏi filter mới
+    private synchronized void rebuildFilter() {
+        BloomFilter rebuilt = BloomFilter.create(Math.max(expectedTokens, revoked.size() * 2), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+}
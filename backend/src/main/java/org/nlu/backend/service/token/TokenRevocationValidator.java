@@ -0,0 +1,29 @@
+package org.nlu.backend.service.token;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+/**
+ * Từ chối JWT đã bị thu hồi khi logout.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationValidator implements OAuth2TokenValidator<Jwt> {
+
+    private static final OAuth2Error REVOKED =
+            new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "Token has been revoked", null);
+
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt token) {
+        return tokenRevocationRegistry.isRevoked(token.getId())
+                ? OAuth2TokenValidatorResult.failure(REVOKED)
+                : OAuth2TokenValidatorResult.success();
+    }
+}
@@ -0,0 +1,66 @@
+package org.nlu.backend.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.repository.InvalidatedTokenRepository;
+import org.nlu.backend.repository.UserRepository;
+import org.nlu.backend.service.token.JwtAuthenticationCache;
+import org.nlu.backend.service.token.TokenRevocationRegistry;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class CachingJwtAuthenticationProviderTests {
+
+    private final JwtDecoder decoder = mock(JwtDecoder.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CachingJwtAuthenticationProvider provider;
+
+    CachingJwtAuthenticationProviderTests() {
+        JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        authoritiesConverter.setAuthorityPrefix("");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+        JwtAuthenticationProvider delegate = new JwtAuthenticationProvider(decoder);
+        delegate.setJwtAuthenticationConverter(converter);
+
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(
+                mock(InvalidatedTokenRepository.class), new SimpleMeterRegistry(), 1000);
+        provider = new CachingJwtAuthenticationProvider(delegate,
+                new JwtAuthenticationCache(registry, new SimpleMeterRegistry(), 100, 300), userRepository);
+    }
+
+    @Test
+    void buildsPrincipalFromClaimsOnceAndReusesIt() {
+        when(decoder.decode("token")).thenReturn(Jwt.withTokenValue("token")
+                .header("alg", "HS512")
+                .subject("seller@example.com")
+                .jti("jti")
+                .claim(AuthenticatedUser.USER_ID_CLAIM, 42L)
+                .claim("scope", "ROLE_SELLER ROLE_USER")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build());
+
+        Authentication first = provider.authenticate(new BearerTokenAuthenticationToken("token"));
+        Authentication second = provider.authenticate(new BearerTokenAuthenticationToken("token"));
+
+        AuthenticatedUser user = (AuthenticatedUser) second.getPrincipal();
+        assertEquals(new AuthenticatedUser(42L, "seller@example.com", Set.of("SELLER", "USER")), user);
+        assertEquals("seller@example.com", second.getName());
+        assertTrue(first.isAuthenticated() && second.isAuthenticated());
+        verify(decoder, times(1)).decode("token");
+        verifyNoInteractions(userRepository);
+    }
+}
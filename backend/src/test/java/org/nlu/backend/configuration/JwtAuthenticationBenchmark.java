@@ -0,0 +1,111 @@
+package org.nlu.backend.configuration;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.nlu.backend.repository.InvalidatedTokenRepository;
+import org.nlu.backend.repository.UserRepository;
+import org.nlu.backend.service.token.JwtAuthenticationCache;
+import org.nlu.backend.service.token.TokenRevocationRegistry;
+import org.nlu.backend.service.token.TokenRevocationValidator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chi phí xác thực bearer token mỗi request: giải mã đầy đủ (HS512 + parse claim + converter)
+ * so với lấy lại từ {@link JwtAuthenticationCache}. Cấu hình giống {@link SecurityConfig}.
+ * <p>
+ * Chạy: {@code mvn test-compile} rồi chạy {@link #main} với classpath test (không chạy cùng {@code mvn test}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SIGNER_KEY = "1TjXchw5FloESb63Kc+DFhTARvpWL4jUGCwfGWxuG5SIf/1y/LgJxHnMqaF6A/ij";
+
+    private JwtAuthenticationProvider uncached;
+    private CachingJwtAuthenticationProvider cached;
+    private BearerTokenAuthenticationToken bearer;
+
+    @Setup
+    public void setUp() throws Exception {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(
+                mock(InvalidatedTokenRepository.class), new SimpleMeterRegistry(), 100_000);
+        NimbusJwtDecoder decoder = NimbusJwtDecoder
+                .withSecretKey(new SecretKeySpec(SIGNER_KEY.getBytes(), "HS512"))
+                .macAlgorithm(MacAlgorithm.HS512)
+                .build();
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                JwtValidators.createDefault(), new TokenRevocationValidator(registry)));
+
+        JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        authoritiesConverter.setAuthorityPrefix("");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+        uncached = new JwtAuthenticationProvider(decoder);
+        uncached.setJwtAuthenticationConverter(converter);
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findIdByEmail(anyString())).thenReturn(Optional.of(1L));
+        cached = new CachingJwtAuthenticationProvider(uncached,
+                new JwtAuthenticationCache(registry, new SimpleMeterRegistry(), 10_000, 300), userRepository);
+
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("student@example.com")
+                .issuer("org.nlu.english_course")
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("scope", "ROLE_STUDENT ROLE_USER")
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS512), claims);
+        jwt.sign(new MACSigner(SIGNER_KEY.getBytes()));
+        bearer = new BearerTokenAuthenticationToken(jwt.serialize());
+    }
+
+    @Benchmark
+    public Authentication decodeEveryRequest() {
+        return uncached.authenticate(bearer);
+    }
+
+    @Benchmark
+    public Authentication cachedAuthentication() {
+        return cached.authenticate(bearer);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package org.nlu.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.dto.response.course.EnrolledCourseResponse;
+import org.nlu.backend.entity.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class CourseEnrollmentRepositoryTests {
+
+    private static final int COURSE_COUNT = 7;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    CourseEnrollmentRepository enrollmentRepository;
+
+    User student;
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role role = Role.builder().name("SELLER").build();
+        entityManager.persist(role);
+        student = User.builder().fullName("student").email("student@test.com").password("secret").build();
+        entityManager.persist(student);
+        Order order = Order.builder()
+                .user(student)
+                .totalAmount(BigDecimal.ZERO)
+                .status(Order.OrderStatus.COMPLETED)
+                .paymentMethod(Order.PaymentMethod.BANK_TRANSFER)
+                .orderDetails(new HashSet<>())
+                .build();
+        entityManager.persist(order);
+
+        // Mỗi khóa học một seller khác nhau: trước đây mỗi seller là một truy vấn (kèm roles EAGER)
+        for (int i = 0; i < COURSE_COUNT; i++) {
+            User seller = User.builder().fullName("seller " + i).email("seller" + i + "@test.com")
+                    .password("secret").roles(Set.of(role)).build();
+            entityManager.persist(seller);
+            Course course = Course.builder()
+                    .title("Course " + i)
+                    .price(BigDecimal.valueOf(100 + i))
+                    .status(Course.CourseStatus.PUBLISHED)
+                    .seller(seller)
+                    .lessonCount(4)
+                    .build();
+            entityManager.persist(course);
+            entityManager.persist(CourseEnrollment.builder().user(student).course(course).order(order)
+                    .completedLessons(i % 5).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findEnrolledCoursesUsesSingleStatement() {
+        List<EnrolledCourseResponse> courses = enrollmentRepository.findEnrolledCourses(student.getId(), Pageable.unpaged());
+
+        assertEquals(COURSE_COUNT, courses.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        courses.forEach(course -> assertEquals("seller " + course.getTitle().substring("Course ".length()),
+                course.getInstructorName()));
+        assertEquals(Set.of(0.0, 25.0, 50.0, 75.0, 100.0),
+                new HashSet<>(courses.stream().map(EnrolledCourseResponse::getProgress).toList()));
+    }
+
+    @Test
+    void keysetPagesCoverAllEnrollmentsOnce() {
+        List<Long> seen = new ArrayList<>();
+        List<EnrolledCourseResponse> page = enrollmentRepository.findEnrolledCourses(student.getId(), PageRequest.of(0, 3));
+        while (!page.isEmpty()) {
+            page.forEach(course -> seen.add(course.getId()));
+            EnrolledCourseResponse last = page.get(page.size() - 1);
+            page = enrollmentRepository.findEnrolledCoursesAfter(student.getId(), last.getEnrollmentDate(), last.getId(),
+                    PageRequest.of(0, 3));
+        }
+
+        assertEquals(COURSE_COUNT, seen.size());
+        assertEquals(COURSE_COUNT, new HashSet<>(seen).size());
+        // Mỗi trang là một câu truy vấn
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,81 @@
+package org.nlu.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.dto.response.course.CourseSummaryResponse;
+import org.nlu.backend.entity.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class CourseRepositoryTests {
+
+    private static final int COURSE_COUNT = 10;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    CourseRepository courseRepository;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role role = Role.builder().name("SELLER").build();
+        entityManager.persist(role);
+
+        User seller = User.builder()
+                .fullName("seller")
+                .email("seller@test.com")
+                .password("secret")
+                .roles(Set.of(role))
+                .build();
+        entityManager.persist(seller);
+
+        Level level = Level.builder().name("Beginner").build();
+        entityManager.persist(level);
+
+        Category category = Category.builder().name("IELTS").build();
+        entityManager.persist(category);
+
+        for (int i = 0; i < COURSE_COUNT; i++) {
+            entityManager.persist(Course.builder()
+                    .title("Course " + i)
+                    .price(BigDecimal.valueOf(100 + i))
+                    .status(Course.CourseStatus.PUBLISHED)
+                    .seller(seller)
+                    .level(level)
+                    .category(category)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findSummariesUsesSingleStatement() {
+        List<CourseSummaryResponse> summaries = courseRepository.findSummaries(null, null);
+
+        assertEquals(COURSE_COUNT, summaries.size());
+        assertEquals("seller", summaries.get(0).getSellerName());
+        assertEquals("Beginner", summaries.get(0).getLevelName());
+        assertEquals("IELTS", summaries.get(0).getCategoryName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,121 @@
+package org.nlu.backend.service.course;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.entity.Course;
+import org.nlu.backend.entity.User;
+import org.nlu.backend.repository.CourseRepository;
+import org.nlu.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({CourseCounterBuffer.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CourseCounterBufferTests {
+
+    private static final int THREADS = 8;
+    private static final int VIEWS_PER_THREAD = 5_000;
+
+    @Autowired
+    CourseCounterBuffer buffer;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    CourseRepository courseRepository;
+
+    Course course;
+
+    @BeforeEach
+    void setUp() {
+        User seller = userRepository.save(User.builder().fullName("seller").email("seller@test.com").password("secret").build());
+        course = courseRepository.save(Course.builder()
+                .title("IELTS 7.0")
+                .price(BigDecimal.valueOf(500_000))
+                .status(Course.CourseStatus.PUBLISHED)
+                .seller(seller)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        courseRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentIncrementsAreFlushedExactlyOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < VIEWS_PER_THREAD; i++) {
+                    buffer.recordView(course.getId());
+                }
+                buffer.recordEnrollmentAfterCommit(course.getId());
+                return null;
+            }));
+        }
+        start.countDown();
+        // Flush song song với các luồng đang đếm: không lượt nào bị mất hay tính hai lần
+        while (futures.stream().anyMatch(future -> !future.isDone())) {
+            buffer.flush();
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        buffer.flush();
+        buffer.flush();
+
+        Course stored = courseRepository.findById(course.getId()).orElseThrow();
+        assertEquals((long) THREADS * VIEWS_PER_THREAD, stored.getViewCount());
+        assertEquals(THREADS, stored.getEnrollmentCount());
+    }
+
+    @Test
+    void countersOfDeletedCoursesAreDropped() {
+        buffer.recordView(course.getId());
+        buffer.recordView(-1L);
+
+        assertEquals(2, buffer.drainAndWrite());
+        buffer.recordView(-1L);
+        // Mục của khóa học không tồn tại đã bị dọn ở lần trước, lần này được tạo lại rồi dọn tiếp
+        assertEquals(1, buffer.drainAndWrite());
+        assertEquals(0, buffer.drainAndWrite());
+        assertEquals(1L, courseRepository.findById(course.getId()).orElseThrow().getViewCount());
+    }
+
+    @Test
+    void savingStaleEntityKeepsFlushedCounters() {
+        Course stale = courseRepository.findById(course.getId()).orElseThrow();
+        buffer.recordView(course.getId());
+        buffer.recordEnrollmentAfterCommit(course.getId());
+        buffer.flush();
+
+        // Entity đọc trước khi flush được sửa rồi lưu: bộ đếm không bị ghi đè về giá trị cũ
+        stale.setTitle("IELTS 7.5");
+        courseRepository.save(stale);
+
+        Course stored = courseRepository.findById(course.getId()).orElseThrow();
+        assertEquals("IELTS 7.5", stored.getTitle());
+        assertEquals(1L, stored.getViewCount());
+        assertEquals(1L, stored.getEnrollmentCount());
+    }
+}
@@ -0,0 +1,174 @@
+package org.nlu.backend.service.enrollment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.nlu.backend.dto.request.enrollment.EnrollmentGrantRequest;
+import org.nlu.backend.dto.response.enrollment.EnrollmentGrantResult;
+import org.nlu.backend.dto.response.enrollment.EnrollmentGrantResult.Status;
+import org.nlu.backend.entity.Course;
+import org.nlu.backend.entity.User;
+import org.nlu.backend.repository.*;
+import org.nlu.backend.service.course.CourseCounterBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({EnrollmentGrantService.class, EntitlementCache.class, CourseCounterBuffer.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // mỗi lô cấp quyền tự commit
+class EnrollmentGrantServiceTests {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentGrantServiceTests.class);
+
+    @Autowired
+    EnrollmentGrantService grantService;
+
+    @Autowired
+    EntitlementCache entitlementCache;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    CourseRepository courseRepository;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    CourseEnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        enrollmentRepository.deleteAllInBatch();
+        jdbcTemplate.update("DELETE FROM order_details");
+        orderRepository.deleteAllInBatch();
+        courseRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void reportsEveryRowInOrderAndSkipsExistingEnrollments() {
+        List<User> users = createUsers(3);
+        List<Course> courses = createCourses(users.get(0), 2);
+        long u0 = users.get(1).getId(), u1 = users.get(2).getId();
+        long c0 = courses.get(0).getId(), c1 = courses.get(1).getId();
+        grantService.grantEnrollments(List.of(new EnrollmentGrantRequest(u0, c0)), result -> { });
+
+        List<EnrollmentGrantResult> report = new ArrayList<>();
+        grantService.grantEnrollments(List.of(
+                new EnrollmentGrantRequest(u0, c0),
+                new EnrollmentGrantRequest(u0, c1),
+                new EnrollmentGrantRequest(u1, c0),
+                new EnrollmentGrantRequest(u0, c1),
+                new EnrollmentGrantRequest(-1L, c0),
+                new EnrollmentGrantRequest(u1, -1L),
+                new EnrollmentGrantRequest(null, c0)), report::add);
+
+        assertEquals(List.of(Status.ALREADY_ENROLLED, Status.GRANTED, Status.GRANTED, Status.DUPLICATE,
+                        Status.USER_NOT_FOUND, Status.COURSE_NOT_FOUND, Status.INVALID),
+                report.stream().map(EnrollmentGrantResult::getStatus).toList());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), report.stream().map(EnrollmentGrantResult::getRow).toList());
+        assertEquals(3, enrollmentRepository.count());
+        assertTrue(entitlementCache.owns(u0, c1));
+        // Đơn cấp quyền ghi rõ phương thức và khóa học, không lẫn với đơn chuyển khoản
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders o JOIN order_details d ON d.order_id = o.id "
+                        + "WHERE o.payment_method = 'ADMIN_GRANT'", Integer.class));
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithRowsInAChunk() {
+        List<User> users = createUsers(30);
+        List<Course> courses = createCourses(users.get(0), 20);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<EnrollmentGrantRequest> grants = new ArrayList<>();
+        for (User user : users) {
+            for (Course course : courses) {
+                grants.add(new EnrollmentGrantRequest(user.getId(), course.getId()));
+            }
+        }
+        List<EnrollmentGrantResult> report = new ArrayList<>();
+        grantService.grantEnrollments(grants, report::add);
+
+        assertEquals(600, report.stream().filter(result -> result.getStatus() == Status.GRANTED).count());
+        assertEquals(600, enrollmentRepository.count());
+        // 3 truy vấn tập hợp + INSERT theo batch 50 dòng + cấp id theo lô; trước đây ~5 câu lệnh mỗi dòng
+        assertTrue(statistics.getPrepareStatementCount() < 60,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    // Chạy tay: mvn test -Dtest=EnrollmentGrantServiceTests -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void grantsHundredThousandEnrollments() {
+        List<User> users = createUsers(1000);
+        List<Course> courses = createCourses(users.get(0), 100);
+        List<EnrollmentGrantRequest> grants = new ArrayList<>(100_000);
+        for (User user : users) {
+            for (Course course : courses) {
+                grants.add(new EnrollmentGrantRequest(user.getId(), course.getId()));
+            }
+        }
+
+        Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        long start = System.nanoTime();
+        grantService.grantEnrollments(grants, result -> counts.merge(result.getStatus(), 1, Integer::sum));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("Granted {} in {} ms ({} grants/s)", counts, elapsedMillis,
+                grants.size() * 1000L / Math.max(elapsedMillis, 1));
+        assertEquals(100_000, counts.get(Status.GRANTED));
+    }
+
+    private List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder().fullName("user " + i).email("user" + i + "@test.com").password("secret").build());
+        }
+        return userRepository.saveAll(users);
+    }
+
+    private List<Course> createCourses(User seller, int count) {
+        List<Course> courses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            courses.add(Course.builder()
+                    .title("Course " + i)
+                    .price(BigDecimal.valueOf(100_000))
+                    .status(Course.CourseStatus.PUBLISHED)
+                    .seller(seller)
+                    .build());
+        }
+        return courseRepository.saveAll(courses);
+    }
+}
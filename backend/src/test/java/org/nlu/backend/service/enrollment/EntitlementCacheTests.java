@@ -0,0 +1,47 @@
+package org.nlu.backend.service.enrollment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.repository.CourseEnrollmentRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class EntitlementCacheTests {
+
+    private final CourseEnrollmentRepository repository = mock(CourseEnrollmentRepository.class);
+    private final EntitlementCache cache = new EntitlementCache(repository, new SimpleMeterRegistry(), 100, 600);
+
+    @Test
+    void loadsEachUserOnceAndAnswersBatchLookups() {
+        when(repository.findCourseIdsByUserId(1L)).thenReturn(List.of(42L, 7L, 42L, 19L));
+
+        assertTrue(cache.owns(1L, 7L));
+        assertFalse(cache.owns(1L, 8L));
+        assertEquals(List.of(19L, 42L), cache.ownedAmong(1L, List.of(3L, 19L, 42L, 19L, 100L)));
+
+        verify(repository, times(1)).findCourseIdsByUserId(1L);
+    }
+
+    @Test
+    void grantsAreVisibleWithoutReloadAndNegativesAreConfirmed() {
+        when(repository.findCourseIdsByUserId(1L)).thenReturn(List.of(7L));
+        assertFalse(cache.owns(1L, 5L));
+
+        cache.grantAfterCommit(1L, 5L);
+        assertTrue(cache.owns(1L, 5L));
+
+        // Ghi danh ở instance khác: owns chưa biết, confirmOwns hỏi DB rồi nhớ lại
+        when(repository.existsByUserIdAndCourseId(1L, 9L)).thenReturn(true);
+        assertFalse(cache.owns(1L, 9L));
+        assertTrue(cache.confirmOwns(1L, 9L));
+        assertTrue(cache.confirmOwns(1L, 9L));
+
+        verify(repository, times(1)).existsByUserIdAndCourseId(1L, 9L);
+        verify(repository, times(1)).findCourseIdsByUserId(1L);
+    }
+}
@@ -0,0 +1,139 @@
+package org.nlu.backend.service.lesson;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.dto.request.lesson.LessonCreationRequest;
+import org.nlu.backend.dto.request.lesson.LessonUpdateRequest;
+import org.nlu.backend.dto.response.lesson.LessonResponse;
+import org.nlu.backend.entity.Course;
+import org.nlu.backend.entity.Lesson;
+import org.nlu.backend.entity.User;
+import org.nlu.backend.exception.AppException;
+import org.nlu.backend.exception.ErrorCode;
+import org.nlu.backend.mapper.LessonMapperImpl;
+import org.nlu.backend.repository.LessonRepository;
+import org.nlu.backend.service.progress.ILessonProgressService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({LessonService.class, LessonMapperImpl.class})
+class LessonServiceTests {
+
+    private static final int LARGE_COURSE_LESSONS = 1500;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    LessonService lessonService;
+
+    @Autowired
+    LessonRepository lessonRepository;
+
+    @MockitoBean
+    ILessonProgressService lessonProgressService;
+
+    Course course;
+
+    @BeforeEach
+    void setUp() {
+        User seller = User.builder().fullName("seller").email("seller@test.com").password("secret").build();
+        entityManager.persist(seller);
+        course = Course.builder()
+                .title("TOEIC 800")
+                .price(BigDecimal.valueOf(300_000))
+                .status(Course.CourseStatus.PUBLISHED)
+                .seller(seller)
+                .lessons(new ArrayList<>())
+                .build();
+        entityManager.persist(course);
+    }
+
+    @Test
+    void insertsBetweenNeighboursWithoutTouchingThem() {
+        List<Long> ids = createLessons(1024, 2048, 3072);
+
+        LessonResponse created = lessonService.createLesson(course.getId(), LessonCreationRequest.builder()
+                .title("Inserted").order(2).build());
+
+        assertEquals(2, created.getOrder());
+        assertEquals(List.of(ids.get(0), created.getId(), ids.get(1), ids.get(2)), orderedIds());
+        // Khóa mới nằm giữa 1024 và 2048, các bài khác giữ nguyên
+        assertEquals(List.of(1024, 1536, 2048, 3072), lessonRepository.findOrdersByCourseId(course.getId()));
+    }
+
+    @Test
+    void respacesCourseWhenNeighboursHaveNoRoomLeft() {
+        List<Long> ids = createLessons(1024, 1025, 1026);
+
+        LessonResponse created = lessonService.createLesson(course.getId(), LessonCreationRequest.builder()
+                .title("Inserted").order(2).build());
+
+        assertEquals(List.of(ids.get(0), created.getId(), ids.get(1), ids.get(2)), orderedIds());
+        assertEquals(List.of(1024, 1536, 2048, 3072), lessonRepository.findOrdersByCourseId(course.getId()));
+    }
+
+    @Test
+    void movesOneLessonByRewritingOnlyItsKey() {
+        List<Long> ids = createLessons(1024, 2048, 3072, 4096);
+
+        LessonResponse moved = lessonService.updateLesson(course.getId(), ids.get(3), LessonUpdateRequest.builder()
+                .title("Moved").order(1).build());
+
+        assertEquals(1, moved.getOrder());
+        assertEquals(List.of(ids.get(3), ids.get(0), ids.get(1), ids.get(2)), orderedIds());
+        assertEquals(List.of(0, 1024, 2048, 3072), lessonRepository.findOrdersByCourseId(course.getId()));
+
+        // Vị trí không đổi: giữ nguyên khóa hiện tại
+        lessonService.updateLesson(course.getId(), ids.get(1), LessonUpdateRequest.builder().title("Same").order(3).build());
+        assertEquals(List.of(0, 1024, 2048, 3072), lessonRepository.findOrdersByCourseId(course.getId()));
+    }
+
+    @Test
+    void reordersLargeCourseAcrossStatementChunks() {
+        int[] orders = new int[LARGE_COURSE_LESSONS];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = (i + 1) * LessonService.ORDER_GAP;
+        }
+        List<Long> ids = createLessons(orders);
+        List<Long> reversed = new ArrayList<>(ids);
+        Collections.reverse(reversed);
+
+        lessonService.reorderLessons(course.getId(), reversed);
+
+        assertEquals(reversed, orderedIds());
+        assertEquals(LessonService.ORDER_GAP, lessonRepository.findOrdersByCourseId(course.getId()).get(0));
+
+        // Danh sách không phải hoán vị của các bài trong khóa học bị từ chối
+        AppException error = assertThrows(AppException.class,
+                () -> lessonService.reorderLessons(course.getId(), reversed.subList(1, reversed.size())));
+        assertEquals(ErrorCode.INVALID_LESSON_ORDER, error.getErrorCode());
+    }
+
+    private List<Long> createLessons(int... orders) {
+        List<Long> ids = new ArrayList<>(orders.length);
+        for (int i = 0; i < orders.length; i++) {
+            Lesson lesson = Lesson.builder().course(course).title("Lesson " + i).order(orders[i]).build();
+            entityManager.persist(lesson);
+            ids.add(lesson.getId());
+        }
+        entityManager.flush();
+        return ids;
+    }
+
+    private List<Long> orderedIds() {
+        return lessonRepository.findIdsByCourseIdOrdered(course.getId());
+    }
+}
@@ -0,0 +1,149 @@
+package org.nlu.backend.service.order;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.dto.response.order.OrderDetailResponse;
+import org.nlu.backend.dto.response.order.OrderPageResponse;
+import org.nlu.backend.dto.response.order.OrderResponse;
+import org.nlu.backend.entity.*;
+import org.nlu.backend.service.enrollment.EntitlementCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({OrderService.class, EntitlementCache.class, SimpleMeterRegistry.class})
+class OrderServiceTests {
+
+    private static final int ORDERS = 7;
+    private static final int DETAILS_PER_ORDER = 3;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    OrderService orderService;
+
+    User student;
+    List<Order> orders = new ArrayList<>();
+    Course enrolledCourse;
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role role = Role.builder().name("SELLER").build();
+        entityManager.persist(role);
+        student = User.builder().fullName("student").email("student@test.com").password("secret").build();
+        entityManager.persist(student);
+
+        // Mỗi chi tiết là một khóa học với seller, level, category riêng: trước đây mỗi thứ là một lần nạp lazy
+        int index = 0;
+        for (int o = 0; o < ORDERS; o++) {
+            Order order = Order.builder()
+                    .user(student)
+                    .totalAmount(BigDecimal.valueOf(300))
+                    .status(Order.OrderStatus.COMPLETED)
+                    .paymentMethod(Order.PaymentMethod.BANK_TRANSFER)
+                    .orderDetails(new HashSet<>())
+                    .build();
+            entityManager.persist(order);
+            orders.add(order);
+            for (int d = 0; d < DETAILS_PER_ORDER; d++, index++) {
+                Course course = createCourse(role, index);
+                entityManager.persist(OrderDetail.builder().order(order).course(course).price(BigDecimal.valueOf(100)).build());
+                if (enrolledCourse == null) {
+                    enrolledCourse = course;
+                    entityManager.persist(CourseEnrollment.builder().user(student).course(course).order(order).build());
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void singleOrderIsHydratedInConstantQueries() {
+        OrderResponse byId = orderService.getOrderById(orders.get(0).getId());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertDetailsHydrated(byId);
+
+        statistics.clear();
+        OrderResponse byEnrollment = orderService.getOrderByCourseAndUser(enrolledCourse.getId(), student.getId());
+        // Đơn (qua enrollment), chi tiết, khóa học
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(byId.getId(), byEnrollment.getId());
+        assertDetailsHydrated(byEnrollment);
+
+        assertNull(orderService.getOrderByCourseAndUser(-1L, student.getId()));
+    }
+
+    @Test
+    void orderHistoryPagesUseThreeQueriesEach() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            OrderPageResponse page = orderService.getOrderPage(student.getId(), cursor, 3);
+            assertEquals(3, statistics.getPrepareStatementCount());
+            page.getItems().forEach(order -> {
+                assertDetailsHydrated(order);
+                seen.add(order.getId());
+            });
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(ORDERS, seen.size());
+        assertEquals(ORDERS, Set.copyOf(seen).size());
+    }
+
+    private static void assertDetailsHydrated(OrderResponse order) {
+        assertEquals(DETAILS_PER_ORDER, order.getOrderDetails().size());
+        for (OrderDetailResponse detail : order.getOrderDetails()) {
+            assertNotNull(detail.getCourse());
+            assertTrue(detail.getCourse().getSellerName().startsWith("seller "));
+            assertTrue(detail.getCourse().getLevelName().startsWith("level "));
+            assertTrue(detail.getCourse().getCategoryName().startsWith("category "));
+        }
+    }
+
+    private Course createCourse(Role role, int index) {
+        User seller = User.builder().fullName("seller " + index).email("seller" + index + "@test.com")
+                .password("secret").roles(Set.of(role)).build();
+        entityManager.persist(seller);
+        Level level = Level.builder().name("level " + index).build();
+        entityManager.persist(level);
+        Category category = Category.builder().name("category " + index).build();
+        entityManager.persist(category);
+        Course course = Course.builder()
+                .title("Course " + index)
+                .price(BigDecimal.valueOf(100))
+                .status(Course.CourseStatus.PUBLISHED)
+                .seller(seller)
+                .level(level)
+                .category(category)
+                .build();
+        entityManager.persist(course);
+        return course;
+    }
+}
@@ -0,0 +1,124 @@
+package org.nlu.backend.service.order;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.entity.*;
+import org.nlu.backend.repository.CourseRepository;
+import org.nlu.backend.repository.OrderRepository;
+import org.nlu.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // sweeper tự mở transaction cho từng lô
+class PendingOrderSweeperTests {
+
+    private static final long TTL_MINUTES = 60;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    CourseRepository courseRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    PendingOrderSweeper sweeper;
+    User student;
+    Course course;
+
+    @BeforeEach
+    void setUp() {
+        // Lô 2 dòng để việc hủy phải đi qua nhiều transaction
+        sweeper = new PendingOrderSweeper(orderRepository, transactionTemplate, new SimpleMeterRegistry(), TTL_MINUTES, 2);
+        User seller = userRepository.save(User.builder().fullName("seller").email("seller@test.com").password("secret").build());
+        student = userRepository.save(User.builder().fullName("student").email("student@test.com").password("secret").build());
+        course = courseRepository.save(Course.builder()
+                .title("TOEIC 800")
+                .price(BigDecimal.valueOf(300_000))
+                .status(Course.CourseStatus.PUBLISHED)
+                .seller(seller)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        courseRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void cancelsOnlyExpiredPendingOrders() {
+        Long[] expired = new Long[5];
+        for (int i = 0; i < expired.length; i++) {
+            expired[i] = createOrder(Order.OrderStatus.PENDING, TTL_MINUTES + 1 + i);
+        }
+        Long fresh = createOrder(Order.OrderStatus.PENDING, TTL_MINUTES - 1);
+        Long oldCompleted = createOrder(Order.OrderStatus.COMPLETED, TTL_MINUTES * 3);
+
+        assertEquals(expired.length, sweeper.sweepExpired());
+        for (Long id : expired) {
+            assertEquals(Order.OrderStatus.CANCELLED, orderRepository.findById(id).orElseThrow().getStatus());
+        }
+        assertEquals(Order.OrderStatus.PENDING, orderRepository.findById(fresh).orElseThrow().getStatus());
+        assertEquals(Order.OrderStatus.COMPLETED, orderRepository.findById(oldCompleted).orElseThrow().getStatus());
+        assertEquals(0, sweeper.sweepExpired());
+
+        // Khoản chuyển đến muộn cho đơn đã hủy vẫn hoàn tất đơn; đơn đã COMPLETED không bị trả lần hai
+        assertEquals(1, (int) transactionTemplate.execute(status -> orderRepository.markPaid(expired[0])));
+        assertEquals(Order.OrderStatus.COMPLETED, orderRepository.findById(expired[0]).orElseThrow().getStatus());
+        assertEquals(1, (int) transactionTemplate.execute(status -> orderRepository.markPaid(fresh)));
+        assertEquals(0, (int) transactionTemplate.execute(status -> orderRepository.markPaid(oldCompleted)));
+    }
+
+    @Test
+    void checkoutDoesNotReuseOrdersAboutToExpire() {
+        Long recent = createOrder(Order.OrderStatus.PENDING, 5);
+        createOrder(Order.OrderStatus.PENDING, TTL_MINUTES - 5);
+
+        LocalDateTime reusableSince = LocalDateTime.now().minusMinutes(TTL_MINUTES - 30);
+        List<Order> reusable = orderRepository.findPendingByUserIdAndCourseId(student.getId(), course.getId(), reusableSince);
+
+        assertEquals(1, reusable.size());
+        assertEquals(recent, reusable.get(0).getId());
+    }
+
+    private Long createOrder(Order.OrderStatus status, long ageMinutes) {
+        Order order = Order.builder()
+                .user(student)
+                .totalAmount(BigDecimal.valueOf(300_000))
+                .status(status)
+                .paymentMethod(Order.PaymentMethod.BANK_TRANSFER)
+                .paymentStatus(Order.PaymentStatus.PENDING)
+                .orderDetails(new HashSet<>())
+                .build();
+        order.getOrderDetails().add(OrderDetail.builder().order(order).course(course).price(order.getTotalAmount()).build());
+        Long id = orderRepository.save(order).getId();
+        // created_at do BaseEntity gán lúc persist, lùi lại trực tiếp trong DB
+        jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(ageMinutes)), id);
+        return id;
+    }
+}
@@ -0,0 +1,78 @@
+package org.nlu.backend.service.payment;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * So sánh cách tìm mã thanh toán trong nội dung chuyển khoản: regex cũ với {@link PaymentReferenceCodec}.
+ * <p>
+ * Chạy: {@code mvn test-compile} rồi chạy {@link #main} với classpath test (không chạy cùng {@code mvn test}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PaymentReferenceBenchmark {
+
+    private static final Pattern CONTENT_PATTERN = Pattern.compile("COURSE(\\d+)USER(\\d+)");
+
+    // Nội dung SMS/biến động số dư thường gặp: mã nằm giữa hoặc cuối một chuỗi dài
+    private static final String[] DESCRIPTIONS = {
+            "BIDV;0123456789;+399,000VND;16/06/25 14:32;SD: 12,345,678VND;ND: MBVCB.9876543210.COURSE12USER34.CT tu 0071000123456 NGUYEN VAN A toi 0123456789 TRAN THI B",
+            "TK 0123456789 +1,250,000 VND luc 09:15 02/06/2025. SD 48,120,000 VND. ND: IBFT NGUYEN THI MINH ANH chuyen tien hoc phi COURSE1057USER20931 FT25153912345678",
+            "Tai khoan 19033333333012 tang 500,000VND luc 21-05-2025 20:11:45. Noi dung: 102568930412-0912345678-COURSE7USER5 thanh toan khoa hoc IELTS",
+            "VCB: +799,000VND 15/06/25 08:01 SD 3,004,112VND Ref MBVCB.4412398712.LE VAN C chuyen khoan khong co ma khoa hoc.CT tu 1023456789"
+    };
+
+    private String[] legacyContents;
+    private String[] referenceContents;
+
+    @Setup
+    public void setUp() {
+        legacyContents = DESCRIPTIONS;
+        referenceContents = new String[DESCRIPTIONS.length];
+        for (int i = 0; i < DESCRIPTIONS.length; i++) {
+            referenceContents[i] = DESCRIPTIONS[i].replaceFirst("COURSE\\d+USER\\d+", PaymentReferenceCodec.encode(100_000L + i));
+        }
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        for (String content : legacyContents) {
+            Matcher matcher = CONTENT_PATTERN.matcher(content);
+            if (matcher.find()) {
+                blackhole.consume(Long.parseLong(matcher.group(1)));
+                blackhole.consume(Long.parseLong(matcher.group(2)));
+            }
+        }
+    }
+
+    @Benchmark
+    public void legacyScanner(Blackhole blackhole) {
+        for (String content : legacyContents) {
+            blackhole.consume(PaymentReferenceCodec.decodeLegacy(content));
+        }
+    }
+
+    @Benchmark
+    public void referenceScanner(Blackhole blackhole) {
+        for (String content : referenceContents) {
+            blackhole.consume(PaymentReferenceCodec.decode(content));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PaymentReferenceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,42 @@
+package org.nlu.backend.service.payment;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentReferenceCodecTests {
+
+    @Test
+    void encodedReferenceIsFoundInNoisyBankContent() {
+        for (long id : new long[]{0, 1, 31, 32, 12_345, 987_654_321, PaymentReferenceCodec.MAX_ID}) {
+            String reference = PaymentReferenceCodec.encode(id);
+            assertEquals(PaymentReferenceCodec.LENGTH, reference.length());
+
+            String content = "MBVCB.3921847.NGUYEN VAN A chuyen tien " + reference + "FT25161234567 GD 123456";
+            assertEquals(id, PaymentReferenceCodec.decode(content));
+            assertEquals(id, PaymentReferenceCodec.decode(content.toLowerCase()));
+        }
+    }
+
+    @Test
+    void corruptedReferenceIsRejected() {
+        String reference = PaymentReferenceCodec.encode(123_456);
+        char[] typo = reference.toCharArray();
+        typo[PaymentReferenceCodec.PREFIX.length() + 5] = typo[PaymentReferenceCodec.PREFIX.length() + 5] == 'Z' ? 'Y' : 'Z';
+        assertEquals(PaymentReferenceCodec.NOT_FOUND, PaymentReferenceCodec.decode(new String(typo)));
+
+        assertEquals(PaymentReferenceCodec.NOT_FOUND, PaymentReferenceCodec.decode("TMDT thanh toan khoa hoc"));
+        assertEquals(PaymentReferenceCodec.NOT_FOUND, PaymentReferenceCodec.decode(null));
+        assertThrows(IllegalArgumentException.class, () -> PaymentReferenceCodec.encode(PaymentReferenceCodec.MAX_ID + 1));
+    }
+
+    @Test
+    void legacyContentIsParsed() {
+        PaymentReferenceCodec.LegacyReference reference =
+                PaymentReferenceCodec.decodeLegacy("IB COURSE12 USER3 COURSE42USER7.CT tu 0071000123456");
+        assertNotNull(reference);
+        assertEquals(42, reference.courseId());
+        assertEquals(7, reference.userId());
+        assertNull(PaymentReferenceCodec.decodeLegacy("COURSEUSER7"));
+    }
+}
@@ -0,0 +1,193 @@
+package org.nlu.backend.service.payment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.dto.request.payment.BankWebhookRequest;
+import org.nlu.backend.entity.Course;
+import org.nlu.backend.entity.Order;
+import org.nlu.backend.entity.OrderDetail;
+import org.nlu.backend.entity.PaymentTransaction;
+import org.nlu.backend.entity.User;
+import org.nlu.backend.repository.*;
+import org.nlu.backend.service.course.CourseCounterBuffer;
+import org.nlu.backend.service.enrollment.EntitlementCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({PaymentService.class, PaymentInboxWorker.class, PaymentStatusNotifier.class, EntitlementCache.class,
+        CourseCounterBuffer.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // các luồng webhook cần thấy dữ liệu đã commit
+class PaymentServiceTests {
+
+    private static final int DELIVERIES = 32;
+
+    @Autowired
+    PaymentService paymentService;
+
+    @Autowired
+    PaymentInboxWorker paymentInboxWorker;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    CourseRepository courseRepository;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    CourseEnrollmentRepository courseEnrollmentRepository;
+
+    @Autowired
+    PaymentTransactionRepository paymentTransactionRepository;
+
+    User student;
+    Course course;
+
+    @BeforeEach
+    void setUp() {
+        User seller = userRepository.save(User.builder().fullName("seller").email("seller@test.com").password("secret").build());
+        student = userRepository.save(User.builder().fullName("student").email("student@test.com").password("secret").build());
+        course = courseRepository.save(Course.builder()
+                .title("IELTS 7.0")
+                .price(BigDecimal.valueOf(500_000))
+                .status(Course.CourseStatus.PUBLISHED)
+                .seller(seller)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentTransactionRepository.deleteAll();
+        courseEnrollmentRepository.deleteAll();
+        orderRepository.deleteAll();
+        courseRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentRetriesOfOneTransactionEnrollOnce() throws Exception {
+        List<Boolean> results = deliverConcurrently(i -> webhook(1001L));
+        // Mọi lần gửi trùng đều được xác nhận nhưng chỉ một dòng vào inbox
+        results.forEach(result -> assertEquals(true, result));
+        assertEquals(1, paymentTransactionRepository.count());
+
+        drainInbox();
+
+        assertEquals(1, courseEnrollmentRepository.count());
+        assertEquals(1, orderRepository.count());
+        assertTrue(paymentTransactionRepository.findById(1001L).orElseThrow().isSuccess());
+    }
+
+    @Test
+    void concurrentTransfersForSameCourseEnrollOnce() throws Exception {
+        deliverConcurrently(i -> webhook(2000L + i));
+        drainInbox();
+
+        assertEquals(1, courseEnrollmentRepository.count());
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    void referencedTransferCompletesPendingOrderAtFrozenPrice() throws Exception {
+        Order pending = Order.builder()
+                .user(student)
+                .totalAmount(BigDecimal.valueOf(500_000))
+                .status(Order.OrderStatus.PENDING)
+                .paymentMethod(Order.PaymentMethod.BANK_TRANSFER)
+                .paymentStatus(Order.PaymentStatus.PENDING)
+                .orderDetails(new HashSet<>())
+                .build();
+        pending.getOrderDetails().add(OrderDetail.builder().order(pending).course(course).price(BigDecimal.valueOf(500_000)).build());
+        pending = orderRepository.save(pending);
+        String reference = PaymentReferenceCodec.encode(pending.getId());
+
+        // Giá khóa học tăng sau khi checkout không ảnh hưởng đơn đã chốt
+        course.setPrice(BigDecimal.valueOf(900_000));
+        courseRepository.save(course);
+
+        paymentService.processBankWebhook(BankWebhookRequest.builder()
+                .id(3001L)
+                .transferType("in")
+                .content("MBVCB.1234567.NGUYEN VAN A chuyen tien " + reference + " FT25161234567")
+                .transferAmount(BigDecimal.valueOf(500_000))
+                .build());
+        drainInbox();
+
+        Order paid = orderRepository.findById(pending.getId()).orElseThrow();
+        assertEquals(Order.OrderStatus.COMPLETED, paid.getStatus());
+        assertEquals(Order.PaymentStatus.COMPLETED, paid.getPaymentStatus());
+        assertEquals(1, courseEnrollmentRepository.count());
+        assertEquals(1, orderRepository.count());
+    }
+
+    @Test
+    void invalidTransferIsRejectedInsteadOfAcknowledged() {
+        BankWebhookRequest request = webhook(4001L);
+        // Vượt precision = 15 của transfer_amount: lỗi dữ liệu, không phải trùng khóa chính
+        request.setTransferAmount(new BigDecimal("1000000000000000000"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> paymentService.processBankWebhook(request));
+        // Không được ghi nhớ là đã nhận: lần gửi lại vẫn báo lỗi thay vì trả 200
+        assertThrows(DataIntegrityViolationException.class, () -> paymentService.processBankWebhook(request));
+        assertEquals(0, paymentTransactionRepository.count());
+    }
+
+    // Chạy worker cho đến khi không còn giao dịch mới hoặc đang xử lý (các dòng RETRY chờ backoff)
+    private void drainInbox() throws InterruptedException {
+        List<PaymentTransaction.Status> busy = List.of(PaymentTransaction.Status.RECEIVED, PaymentTransaction.Status.PROCESSING);
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (paymentTransactionRepository.countByStatusIn(busy) > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "payment inbox was not drained");
+            paymentInboxWorker.poll();
+            Thread.sleep(100);
+        }
+    }
+
+    private BankWebhookRequest webhook(Long transactionId) {
+        return BankWebhookRequest.builder()
+                .id(transactionId)
+                .transferType("in")
+                .content("COURSE" + course.getId() + "USER" + student.getId())
+                .transferAmount(BigDecimal.valueOf(500_000))
+                .build();
+    }
+
+    private List<Boolean> deliverConcurrently(java.util.function.IntFunction<BankWebhookRequest> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(DELIVERIES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < DELIVERIES; i++) {
+            BankWebhookRequest request = requests.apply(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return paymentService.processBankWebhook(request);
+            }));
+        }
+        start.countDown();
+        List<Boolean> results = new ArrayList<>();
+        for (Future<Boolean> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return results;
+    }
+}
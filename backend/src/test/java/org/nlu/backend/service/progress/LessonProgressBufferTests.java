@@ -0,0 +1,134 @@
+package org.nlu.backend.service.progress;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.entity.*;
+import org.nlu.backend.repository.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({LessonProgressBuffer.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // buffer tự mở transaction khi flush
+class LessonProgressBufferTests {
+
+    @Autowired
+    LessonProgressBuffer buffer;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    CourseRepository courseRepository;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    CourseEnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    LessonProgressRepository lessonProgressRepository;
+
+    @Autowired
+    LessonRepository lessonRepository;
+
+    User student;
+    Course course;
+    CourseEnrollment enrollment;
+
+    @BeforeEach
+    void setUp() {
+        User seller = userRepository.save(User.builder().fullName("seller").email("seller@test.com").password("secret").build());
+        student = userRepository.save(User.builder().fullName("student").email("student@test.com").password("secret").build());
+        Course draft = Course.builder()
+                .title("TOEIC 800")
+                .price(BigDecimal.valueOf(300_000))
+                .status(Course.CourseStatus.PUBLISHED)
+                .seller(seller)
+                .lessons(new ArrayList<>())
+                .build();
+        for (int i = 1; i <= 3; i++) {
+            draft.getLessons().add(Lesson.builder().course(draft).title("Lesson " + i).order(i * 1024).build());
+        }
+        course = courseRepository.save(draft);
+        Order order = orderRepository.save(Order.builder()
+                .user(student)
+                .totalAmount(BigDecimal.valueOf(300_000))
+                .status(Order.OrderStatus.COMPLETED)
+                .paymentMethod(Order.PaymentMethod.BANK_TRANSFER)
+                .orderDetails(new HashSet<>())
+                .build());
+        enrollment = enrollmentRepository.save(CourseEnrollment.builder().user(student).course(course).order(order).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        lessonProgressRepository.deleteAll();
+        enrollmentRepository.deleteAll();
+        orderRepository.deleteAll();
+        courseRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void coalescesEventsAndCountsEachCompletionOnce() {
+        List<Lesson> lessons = course.getLessons();
+        Long first = lessons.get(0).getId();
+        Long second = lessons.get(1).getId();
+
+        // Nhiều heartbeat + hoàn thành lặp lại của cùng bài học gộp thành một dòng
+        buffer.record(student.getId(), first, course.getId(), 30, false);
+        buffer.record(student.getId(), first, course.getId(), 90, false);
+        buffer.record(student.getId(), first, course.getId(), 60, true);
+        buffer.record(student.getId(), second, course.getId(), 10, false);
+        assertEquals(2, buffer.drainAndWrite());
+
+        LessonProgress progress = lessonProgressRepository.findById(new LessonProgress.Key(student.getId(), first)).orElseThrow();
+        assertEquals(90, progress.getPositionSeconds());
+        assertNotNull(progress.getCompletedAt());
+        assertEquals(1, completedLessons());
+
+        // Hoàn thành lại bài đã xong không cộng thêm; bài thứ hai chuyển sang hoàn thành qua nhánh UPDATE
+        buffer.record(student.getId(), first, course.getId(), 120, true);
+        buffer.record(student.getId(), second, course.getId(), 40, true);
+        assertEquals(2, buffer.drainAndWrite());
+
+        assertEquals(2, completedLessons());
+        assertEquals(2, lessonProgressRepository.count());
+        assertEquals(3, courseRepository.findById(course.getId()).orElseThrow().getLessonCount());
+    }
+
+    @Test
+    void skipsEntriesForDeletedLessons() {
+        Long removed = course.getLessons().get(2).getId();
+        buffer.record(student.getId(), removed, course.getId(), 50, true);
+        lessonRepository.deleteById(removed);
+
+        // Mục đến trước khi bài bị xoá không tạo dòng mồ côi và không cộng bộ đếm hoàn thành
+        assertEquals(1, buffer.drainAndWrite());
+        assertEquals(0, lessonProgressRepository.count());
+        assertEquals(0, completedLessons());
+
+        buffer.record(student.getId(), removed, course.getId(), 60, true);
+        buffer.discardLesson(removed);
+        assertEquals(0, buffer.drainAndWrite());
+    }
+
+    private int completedLessons() {
+        return enrollmentRepository.findById(enrollment.getId()).orElseThrow().getCompletedLessons();
+    }
+}
@@ -0,0 +1,102 @@
+package org.nlu.backend.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.repository.CourseRepository;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class CourseSearchIndexTests {
+
+    private final CourseRepository repository = mock(CourseRepository.class);
+    private final CourseSearchIndex index = new CourseSearchIndex(repository);
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findSearchDocuments(0L, PageRequest.of(0, CourseSearchIndex.REBUILD_BATCH_SIZE))).thenReturn(List.of(
+                new CourseSearchDocument(1L, "Tiếng Anh giao tiếp", "Luyện nói hằng ngày", "Ngoại ngữ", "Cơ bản"),
+                new CourseSearchDocument(2L, "Lập trình Java", "Xây dựng ứng dụng web", "Công nghệ", "Cơ bản"),
+                new CourseSearchDocument(3L, "Spring Boot thực chiến", "Dành cho người đã biết Java", "Công nghệ", "Nâng cao"),
+                new CourseSearchDocument(4L, "Đọc hiểu tiếng Nhật", null, "Ngoại ngữ", null)));
+        index.rebuild();
+    }
+
+    @Test
+    void matchesFoldedTermsAndPrefixOfLastTerm() {
+        assertEquals(List.of(1L, 4L), index.search("tieng anh", 10));
+        assertEquals(List.of(4L), index.search("doc hieu", 10));
+        // Chỉ từ cuối được khớp theo tiền tố: "la" cuối câu khớp "lap", ở giữa câu phải khớp nguyên từ
+        assertEquals(List.of(2L), index.search("lap tr", 10));
+        assertEquals(List.of(2L), index.search("la", 10));
+        assertEquals(index.search("java", 10), index.search("la java", 10));
+        assertEquals(List.of(), index.search("python", 10));
+        assertEquals(List.of(), index.search("  ", 10));
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatches() {
+        assertEquals(List.of(2L, 3L), index.search("java", 10));
+        assertEquals(List.of(2L), index.search("java", 1));
+        // Khớp nhiều từ hơn xếp trước
+        assertEquals(List.of(1L, 4L), index.search("anh tieng ngoai", 10));
+    }
+
+    @Test
+    void removeAndRefreshReplaceDocuments() {
+        index.remove(2L);
+        assertEquals(List.of(3L), index.search("java", 10));
+
+        when(repository.findSearchDocumentById(3L))
+                .thenReturn(Optional.of(new CourseSearchDocument(3L, "Python cơ bản", null, "Công nghệ", "Cơ bản")));
+        index.refresh(3L);
+        assertEquals(List.of(3L), index.search("python", 10));
+        assertEquals(List.of(), index.search("java", 10));
+
+        when(repository.findSearchDocumentById(3L)).thenReturn(Optional.empty());
+        index.refresh(3L);
+        assertEquals(List.of(), index.search("python", 10));
+    }
+
+    @Test
+    void refreshChangedPicksUpUpdatesAndDeletionsFromOtherInstances() {
+        when(repository.findIdsUpdatedSince(any())).thenReturn(List.of(1L));
+        when(repository.findSearchDocumentsByIds(List.of(1L)))
+                .thenReturn(List.of(new CourseSearchDocument(1L, "Tiếng Hàn giao tiếp", null, "Ngoại ngữ", "Cơ bản")));
+        // Khóa học 3 đã bị xóa ở instance khác
+        when(repository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L, 4L));
+
+        index.refreshChanged();
+
+        assertEquals(List.of(1L), index.search("han", 10));
+        assertEquals(List.of(), index.search("anh", 10));
+        assertEquals(List.of(2L), index.search("java", 10));
+    }
+
+    @Test
+    void rebuildReadsWithoutBlockingSearchesAndReappliesConcurrentChanges() {
+        when(repository.findSearchDocuments(0L, PageRequest.of(0, CourseSearchIndex.REBUILD_BATCH_SIZE))).thenAnswer(invocation -> {
+            // Trong lúc đọc lô, tìm kiếm ở thread khác vẫn chạy trên bản cũ và khóa học 1 bị xóa
+            assertEquals(List.of(1L, 4L), CompletableFuture.supplyAsync(() -> index.search("tieng anh", 10)).get(5, TimeUnit.SECONDS));
+            index.remove(1L);
+            return List.of(
+                    new CourseSearchDocument(1L, "Tiếng Anh giao tiếp", null, "Ngoại ngữ", "Cơ bản"),
+                    new CourseSearchDocument(4L, "Đọc hiểu tiếng Nhật", null, "Ngoại ngữ", null));
+        });
+        when(repository.findSearchDocumentsByIds(List.of(1L))).thenReturn(List.of());
+
+        index.rebuild();
+
+        // Bản mới đã đọc khóa học 1 trước khi bị xóa: được đọc lại sau khi thay vào
+        assertEquals(List.of(4L), index.search("tieng anh", 10));
+        assertEquals(List.of(), index.search("java", 10));
+    }
+}
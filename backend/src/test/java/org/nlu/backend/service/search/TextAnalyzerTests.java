@@ -0,0 +1,25 @@
+package org.nlu.backend.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextAnalyzerTests {
+
+    @Test
+    void foldsVietnameseDiacriticsAndCase() {
+        assertEquals(List.of("tieng", "anh", "giao", "tiep"), TextAnalyzer.tokenize("Tiếng Anh Giao Tiếp"));
+        assertEquals(List.of("luyen", "thi", "nang", "cao"), TextAnalyzer.tokenize("LUYỆN THI NÂNG CAO"));
+        // "đ" không có dạng tách dấu trong NFD nên được thay riêng
+        assertEquals(List.of("de", "thi", "dai", "hoc"), TextAnalyzer.tokenize("Đề thi đại học"));
+    }
+
+    @Test
+    void splitsOnNonAlphanumericCharacters() {
+        assertEquals(List.of("ielts", "7", "0", "c"), TextAnalyzer.tokenize("IELTS-7.0, (C++)"));
+        assertEquals(List.of(), TextAnalyzer.tokenize("  ?!  "));
+        assertEquals(List.of(), TextAnalyzer.tokenize(null));
+    }
+}
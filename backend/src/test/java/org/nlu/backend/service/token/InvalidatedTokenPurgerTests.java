@@ -0,0 +1,66 @@
+package org.nlu.backend.service.token;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.entity.InvalidatedToken;
+import org.nlu.backend.repository.InvalidatedTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // purger tự mở transaction cho từng lô
+class InvalidatedTokenPurgerTests {
+
+    private static final int BATCH_SIZE = 3;
+
+    @Autowired
+    InvalidatedTokenRepository invalidatedTokenRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        invalidatedTokenRepository.deleteAll();
+    }
+
+    @Test
+    void deletesOnlyExpiredTokensAcrossBatches() {
+        long now = System.currentTimeMillis();
+        List<InvalidatedToken> tokens = new ArrayList<>();
+        // 8 JTI hết hạn -> 3 lô (3 + 3 + 2), lô cuối thiếu nên dừng
+        for (int i = 0; i < 8; i++) {
+            tokens.add(token("expired-" + i, now - Duration.ofMinutes(i + 1).toMillis()));
+        }
+        tokens.add(token("valid-0", now + Duration.ofMinutes(5).toMillis()));
+        tokens.add(token("valid-1", now + Duration.ofHours(1).toMillis()));
+        invalidatedTokenRepository.saveAll(tokens);
+
+        InvalidatedTokenPurger purger = new InvalidatedTokenPurger(
+                invalidatedTokenRepository, transactionTemplate, new SimpleMeterRegistry(), BATCH_SIZE);
+
+        assertEquals(8, purger.purgeExpired());
+        Set<String> remaining = invalidatedTokenRepository.findAll().stream()
+                .map(InvalidatedToken::getId)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("valid-0", "valid-1"), remaining);
+        assertEquals(0, purger.purgeExpired());
+    }
+
+    private static InvalidatedToken token(String id, long expiryMillis) {
+        return InvalidatedToken.builder().id(id).expiryTime(new Date(expiryMillis)).createdAt(new Date()).build();
+    }
+}
@@ -0,0 +1,54 @@
+package org.nlu.backend.service.token;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.configuration.AuthenticatedUser;
+import org.nlu.backend.repository.InvalidatedTokenRepository;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class JwtAuthenticationCacheTests {
+
+    private final TokenRevocationRegistry registry =
+            new TokenRevocationRegistry(mock(InvalidatedTokenRepository.class), new SimpleMeterRegistry(), 1000);
+    private final JwtAuthenticationCache cache =
+            new JwtAuthenticationCache(registry, new SimpleMeterRegistry(), 100, 300);
+
+    @Test
+    void returnsEntryUntilTokenIsRevoked() {
+        String key = JwtAuthenticationCache.keyOf("token-a");
+        cache.put(key, entry("jti-a", Instant.now().plusSeconds(3600)));
+        assertNotNull(cache.get(key));
+
+        registry.revoke("jti-a", Date.from(Instant.now().plusSeconds(3600)));
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    void neverOutlivesTokenExpiry() throws InterruptedException {
+        String key = JwtAuthenticationCache.keyOf("token-b");
+        cache.put(key, entry("jti-b", Instant.now().plusMillis(50)));
+        Thread.sleep(100);
+        assertNull(cache.get(key));
+    }
+
+    private static JwtAuthenticationCache.Entry entry(String jti, Instant expiresAt) {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS512")
+                .subject("student@example.com")
+                .jti(jti)
+                .issuedAt(Instant.now().minusSeconds(1))
+                .expiresAt(expiresAt)
+                .build();
+        return new JwtAuthenticationCache.Entry(jwt, List.of(),
+                new AuthenticatedUser(1L, "student@example.com", Set.of("STUDENT")));
+    }
+}
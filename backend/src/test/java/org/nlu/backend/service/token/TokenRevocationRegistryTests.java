@@ -0,0 +1,69 @@
+package org.nlu.backend.service.token;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.nlu.backend.entity.InvalidatedToken;
+import org.nlu.backend.repository.InvalidatedTokenRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationRegistryTests {
+
+    private final InvalidatedTokenRepository repository = mock(InvalidatedTokenRepository.class);
+    private final TokenRevocationRegistry registry =
+            new TokenRevocationRegistry(repository, new SimpleMeterRegistry(), 1000);
+
+    @Test
+    void loadsRevokedTokensAtStartupAndOnLogout() {
+        when(repository.findByExpiryTimeAfter(any())).thenReturn(List.of(token("loaded", inOneHour())));
+        registry.afterPropertiesSet();
+        registry.revoke("logged-out", inOneHour());
+
+        assertTrue(registry.isRevoked("loaded"));
+        assertTrue(registry.isRevoked("logged-out"));
+        assertFalse(registry.isRevoked("active"));
+        assertFalse(registry.isRevoked(null));
+    }
+
+    @Test
+    void refreshPicksUpOtherInstancesAndDropsExpiredTokens() {
+        registry.revoke("expired", Date.from(Instant.now().minusSeconds(1)));
+        when(repository.findByCreatedAtAfter(any())).thenReturn(List.of(token("remote", inOneHour())));
+
+        registry.refresh();
+
+        assertTrue(registry.isRevoked("remote"));
+        assertFalse(registry.isRevoked("expired"));
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter filter = BloomFilter.create(10_000, TokenRevocationRegistry.FALSE_POSITIVE_RATE);
+        List<String> added = Stream.generate(() -> UUID.randomUUID().toString()).limit(10_000).toList();
+        added.forEach(filter::put);
+
+        assertTrue(added.stream().allMatch(filter::mightContain));
+        long falsePositives = Stream.generate(() -> UUID.randomUUID().toString())
+                .limit(10_000).filter(filter::mightContain).count();
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    private static InvalidatedToken token(String id, Date expiryTime) {
+        return InvalidatedToken.builder().id(id).expiryTime(expiryTime).createdAt(new Date()).build();
+    }
+
+    private static Date inOneHour() {
+        return Date.from(Instant.now().plus(1, ChronoUnit.HOURS));
+    }
+}
@@ -167,4 +167,15 @@ export const courseApi = {
         const apiResponse = await handleApiResponse<ApiResponse<boolean>>(response);
         return apiResponse.data;
     },
+
+    // Chờ kết quả thanh toán qua Server-Sent Events thay vì gọi checkPaymentStatus liên tục.
+    // Trả về hàm hủy đăng ký; EventSource tự kết nối lại khi server đóng kết nối chờ.
+    subscribePaymentStatus: (courseId: number, userId: number, onPaid: () => void): (() => void) => {
+        const source = new EventSource(`${API_BASE_URL}/payment/status-stream/${courseId}?userId=${userId}`);
+        source.addEventListener('payment-status', () => {
+            source.close();
+            onPaid();
+        });
+        return () => source.close();
+    },
 };
\ No newline at end of file
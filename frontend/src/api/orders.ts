@@ -26,4 +26,10 @@ function getAuthHeaders() {
 export const getOrderByCourseAndUser = async (courseId: number, userId: number): Promise<any> => {
   const response = await axios.get(`${API_BASE_URL}/orders/check?courseId=${courseId}&userId=${userId}`, getAuthHeaders());
   return response.data.data;
-};
\ No newline at end of file
+};
+
+// Tạo (hoặc lấy lại) đơn chờ thanh toán chuyển khoản; trả về đơn kèm mã paymentReference cần ghi vào nội dung chuyển khoản
+export const checkoutCourse = async (courseId: number): Promise<any> => {
+  const response = await axios.post(`${API_BASE_URL}/orders/checkout`, { courseId }, { headers: getAuthHeaders() });
+  return response.data.data;
+};
@@ -4,6 +4,7 @@ import Navbar from '../components/Navbar';
 import Footer from '../components/Footer';
 import { Smartphone, Check, ChevronRight, Info, Copy } from 'lucide-react';
 import { courseApi } from '../api/courses';
+import { checkoutCourse } from '../api/orders';
 import { CourseResponse } from '../types/courseTypes';
 import { toast } from 'react-toastify';
 
@@ -30,6 +31,7 @@ const PaymentMethod = () => {
     content: false
   });
   const [checkingPayment, setCheckingPayment] = useState(false);
+  const [paymentReference, setPaymentReference] = useState<string | null>(null);
 
   useEffect(() => {
     const fetchCourseData = async () => {
@@ -55,6 +57,23 @@ const PaymentMethod = () => {
     }
   }, []);
 
+  // Create the pending order so the transfer content carries its payment reference
+  useEffect(() => {
+    if (selectedMethod !== 'bank-transfer' || !courseId || paymentReference) return;
+    checkoutCourse(Number(courseId))
+      .then((order) => setPaymentReference(order?.paymentReference ?? null))
+      .catch((error) => console.error("Error creating pending order:", error));
+  }, [selectedMethod, courseId, paymentReference]);
+
+  // Listen for the bank transfer confirmation while the transfer details are shown
+  useEffect(() => {
+    if (selectedMethod !== 'bank-transfer' || !userId || !courseId) return;
+    return courseApi.subscribePaymentStatus(Number(courseId), userId, () => {
+      toast.success("Thanh toán đã được xác nhận!");
+      navigate(`/payment/success/${courseId}`);
+    });
+  }, [selectedMethod, userId, courseId, navigate]);
+
   // Format price in VND
   const formatPrice = (price: number) => {
     return new Intl.NumberFormat('vi-VN', { style: 'currency', currency: 'VND' }).format(price);
@@ -90,6 +109,7 @@ const PaymentMethod = () => {
 
   // Generate payment content
   const generatePaymentContent = () => {
+    if (paymentReference) return paymentReference;
     return `COURSE${courseData?.id}USER${userId || ''}`;
   };
 